@@ -1,24 +1,51 @@
 package com.example.totvsapp.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.totvsapp.domain.Customers.CustomerBatchResult;
+import com.example.totvsapp.domain.Customers.CustomerDeleteResult;
+import com.example.totvsapp.domain.Customers.CustomerPage;
+import com.example.totvsapp.domain.Customers.CustomerView;
 import com.example.totvsapp.domain.Customers.Customers;
 import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.exceptions.CustomerVersionMismatchException;
+import com.example.totvsapp.services.CustomerChangeFeed;
 import com.example.totvsapp.services.CustomerService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Controller responsável por manipular operações relacionadas a clientes.
+ * <p>
+ * Os corpos de requisição e de resposta podem ser JSON, CBOR
+ * ({@code application/cbor}) ou Smile ({@code application/x-jackson-smile}),
+ * conforme os cabeçalhos Content-Type e Accept; sem preferência, é usado JSON.
+ * As ETags identificam também o formato: a mesma versão de um cliente tem
+ * ETags diferentes em JSON, CBOR e Smile, já que os corpos são diferentes.
+ * </p>
  * 
  * @RestController Indica que esta classe é um controlador Spring MVC.
  *                 @RequestMapping("/api/customers") Mapeia o caminho base para
@@ -30,9 +57,29 @@ import com.example.totvsapp.services.CustomerService;
 @RequestMapping("/api/customers")
 public class CustomerController {
 
+  private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+  /**
+   * Os formatos das respostas, na ordem de preferência dos conversores do
+   * Spring MVC, com o sufixo de cada um nas ETags. O JSON, formato padrão,
+   * não tem sufixo.
+   */
+  private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+      new MediaType("application", "x-jackson-smile"), MediaType.APPLICATION_CBOR);
+
+  private static final List<String> REPRESENTATION_SUFFIXES = List.of("", "+smile", "+cbor");
+
   @Autowired
   private CustomerService service;
 
+  @Autowired
+  private CustomerChangeFeed changeFeed;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
   /**
    * Manipula solicitações HTTP POST para adicionar um novo cliente.
    * 
@@ -47,42 +94,189 @@ public class CustomerController {
   }
 
   /**
-   * Manipula solicitações HTTP GET para recuperar todos os clientes.
+   * Manipula solicitações HTTP POST para adicionar vários clientes de uma vez.
+   * 
+   * @param customersDTOs Os dados dos clientes a serem adicionados.
+   * @return ResponseEntity<List<CustomerBatchResult>> Um objeto ResponseEntity
+   *         contendo, para cada item do lote, o ID do cliente criado ou o código
+   *         do erro que impediu a inserção.
+   */
+  @PostMapping("/batch")
+  public ResponseEntity<List<CustomerBatchResult>> insertAll(@RequestBody List<CustomersDTO> customersDTOs) {
+    List<CustomerBatchResult> results = this.service.insertAll(customersDTOs);
+    return ResponseEntity.ok().body(results);
+  }
+
+  /**
+   * Manipula solicitações HTTP GET para recuperar os clientes.
+   * <p>
+   * Sem parâmetros, retorna todos os clientes. Com {@code after} e/ou
+   * {@code limit}, retorna uma página com até {@code limit} clientes de ID
+   * maior que {@code after}, em ordem de ID; se houver mais clientes, o
+   * cursor da próxima página é informado no cabeçalho {@code X-Next-Cursor}
+   * e deve ser enviado como {@code after} na requisição seguinte.
+   * </p>
+   * <p>
+   * A lista completa traz uma ETag calculada por um resumo dos IDs e das
+   * versões dos clientes, sem carregar a lista. Se o cabeçalho If-None-Match corresponder a ela, a
+   * resposta é 304 Not Modified e a lista não é carregada nem serializada. Na
+   * página, a ETag é calculada a partir dos IDs e das versões dos clientes da
+   * própria página, que já são lidos pelas duas consultas da paginação; com o
+   * If-None-Match correspondente, a página não é serializada.
+   * </p>
    * 
-   * @return ResponseEntity<List<Customers>> Um objeto ResponseEntity contendo a
-   *         lista de todos os clientes e o status HTTP correspondente.
+   * @param request A requisição, usada para avaliar o If-None-Match.
+   * @param after   O cursor da página, opcional.
+   * @param limit   O tamanho da página, opcional.
+   * @return ResponseEntity<List<CustomerView>> Um objeto ResponseEntity contendo
+   *         a lista de clientes e o status HTTP correspondente.
    */
   @GetMapping
-  public ResponseEntity<List<Customers>> getAll() {
-    List<Customers> customers = this.service.getAll();
-    return ResponseEntity.ok().body(customers);
+  public ResponseEntity<List<CustomerView>> getAll(WebRequest request,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    String suffix = representationSuffix(request.getHeader(HttpHeaders.ACCEPT));
+    if (after == null && limit == null) {
+      String eTag = "\"" + this.service.getListVersionTag() + suffix + "\"";
+      if (request.checkNotModified(eTag)) {
+        return null;
+      }
+      List<CustomerView> customers = this.service.getAll();
+      return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(customers);
+    }
+
+    CustomerPage page = this.service.getPage(after != null ? after : 0L,
+        limit != null ? limit : CustomerService.DEFAULT_PAGE_SIZE);
+    String eTag = "\"" + page.versionTag() + suffix + "\"";
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return withNextCursor(ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT), page);
+  }
+
+  /**
+   * Manipula solicitações HTTP GET para buscar clientes pelo nome, por prefixo
+   * ou por semelhança, opcionalmente filtrando pelo início do bairro.
+   * <p>
+   * Os clientes são retornados em ordem de relevância, em páginas de até
+   * {@code limit} clientes. Se houver mais resultados, o cursor da próxima
+   * página é informado no cabeçalho {@code X-Next-Cursor} e deve ser enviado
+   * como {@code after} na requisição seguinte.
+   * </p>
+   *
+   * @param q        O texto buscado no nome.
+   * @param district O início do bairro, opcional.
+   * @param after    O cursor da página, opcional.
+   * @param limit    O tamanho da página, opcional.
+   * @return ResponseEntity<List<CustomerView>> Um objeto ResponseEntity contendo
+   *         os clientes encontrados e o status HTTP correspondente.
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<CustomerView>> search(@RequestParam String q,
+      @RequestParam(required = false) String district,
+      @RequestParam(required = false) Integer after,
+      @RequestParam(required = false) Integer limit) {
+    CustomerPage page = this.service.search(q, district, after != null ? after : 0,
+        limit != null ? limit : CustomerService.DEFAULT_SEARCH_PAGE_SIZE);
+    return withNextCursor(ResponseEntity.ok(), page);
+  }
+
+  /**
+   * Manipula solicitações HTTP GET para acompanhar as alterações de clientes
+   * como Server-Sent Events, em vez de consultar a lista periodicamente.
+   * <p>
+   * Cada inserção, alteração ou exclusão confirmada gera um evento com o
+   * cliente alterado, cujo ID é um número de sequência. Ao reconectar com o
+   * cabeçalho {@code Last-Event-ID}, o cliente recebe os eventos que perdeu;
+   * se eles não estiverem mais disponíveis, recebe um evento {@code reset} e
+   * deve reler a lista de clientes.
+   * </p>
+   *
+   * @param lastEventId O ID do último evento recebido, opcional.
+   * @return SseEmitter O emissor dos eventos de alteração.
+   */
+  @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter changes(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+    Long sequence = null;
+    if (lastEventId != null && !lastEventId.isBlank()) {
+      try {
+        sequence = Long.valueOf(lastEventId.trim());
+      } catch (NumberFormatException e) {
+        // Um ID desconhecido é tratado como de uma execução anterior
+        sequence = -1L;
+      }
+    }
+    return this.changeFeed.subscribe(sequence);
+  }
+
+  /**
+   * Manipula solicitações HTTP GET para exportar todos os clientes em JSON
+   * delimitado por linhas (NDJSON), um cliente com seus telefones por linha.
+   * <p>
+   * A resposta é escrita em streaming à medida que as linhas são lidas do banco,
+   * sem montar a lista completa em memória.
+   * </p>
+   *
+   * @return ResponseEntity<StreamingResponseBody> Um objeto ResponseEntity cujo
+   *         corpo escreve os clientes diretamente na resposta.
+   */
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export() {
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.service.exportAll(customer -> {
+          try {
+            generator.writeObject(customer);
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   /**
    * Manipula solicitações HTTP GET para recuperar um cliente pelo ID.
+   * A resposta traz a ETag do cliente; se o cabeçalho If-None-Match
+   * corresponder a ela, a resposta é 304 Not Modified, sem corpo.
    * 
-   * @param id O ID do cliente a ser recuperado.
-   * @return ResponseEntity<Customers> Um objeto ResponseEntity contendo o cliente
-   *         recuperado e o status HTTP correspondente.
+   * @param id     O ID do cliente a ser recuperado.
+   * @param accept O cabeçalho Accept, que define o formato e a ETag.
+   * @return ResponseEntity<CustomerView> Um objeto ResponseEntity contendo o
+   *         cliente recuperado e o status HTTP correspondente.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Customers> getCustomerById(@PathVariable Long id) {
-    Customers customers = this.service.getCustomerById(id);
-    return ResponseEntity.ok().body(customers);
+  public ResponseEntity<CustomerView> getCustomerById(@PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    CustomerView customers = this.service.getCustomerById(id);
+    return ResponseEntity.ok().eTag(eTag(customers.id(), customers.version(), accept))
+        .varyBy(HttpHeaders.ACCEPT).body(customers);
   }
 
   /**
    * Manipula solicitações HTTP PUT para atualizar um cliente existente.
+   * Quando o cabeçalho If-Match é informado, a atualização só é feita se a
+   * ETag corresponder à versão atual do cliente, em qualquer um dos formatos.
    * 
    * @param id           O ID do cliente a ser atualizado.
+   * @param ifMatch      A ETag esperada do cliente, opcional.
+   * @param accept       O cabeçalho Accept, que define o formato e a ETag da
+   *                     resposta.
    * @param customersDTO Os novos dados do cliente.
    * @return ResponseEntity<Customers> Um objeto ResponseEntity contendo o cliente
    *         atualizado e o status HTTP correspondente.
    */
   @PutMapping("/{id}")
-  public ResponseEntity<Customers> update(@PathVariable("id") Long id, @RequestBody CustomersDTO customersDTO) {
-    Customers updatedCustomers = this.service.update(id, customersDTO);
-    return ResponseEntity.ok().body(updatedCustomers);
+  public ResponseEntity<Customers> update(@PathVariable("id") Long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestBody CustomersDTO customersDTO) {
+    Customers updatedCustomers = this.service.update(id, customersDTO, expectedVersion(id, ifMatch));
+    return ResponseEntity.ok().eTag(eTag(updatedCustomers.getId(), updatedCustomers.getVersion(), accept))
+        .varyBy(HttpHeaders.ACCEPT).body(updatedCustomers);
   }
 
   /**
@@ -97,4 +291,129 @@ public class CustomerController {
     this.service.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Manipula solicitações HTTP DELETE para excluir vários clientes de uma vez.
+   * <p>
+   * Os IDs podem ser informados no parâmetro {@code ids}, separados por
+   * vírgula, e/ou no corpo, como uma lista JSON; o corpo permite lotes grandes
+   * demais para a URL. IDs inexistentes são ignorados.
+   * </p>
+   *
+   * @param ids     Os IDs dos clientes a serem excluídos, opcional.
+   * @param bodyIds Os IDs dos clientes a serem excluídos, opcional.
+   * @return ResponseEntity<CustomerDeleteResult> Um objeto ResponseEntity
+   *         contendo a quantidade de clientes excluídos, ou status badRequest
+   *         se nenhum ID for informado.
+   */
+  @DeleteMapping
+  public ResponseEntity<CustomerDeleteResult> deleteAll(@RequestParam(required = false) List<Long> ids,
+      @RequestBody(required = false) List<Long> bodyIds) {
+    List<Long> allIds = new ArrayList<>();
+    if (ids != null) {
+      allIds.addAll(ids);
+    }
+    if (bodyIds != null) {
+      allIds.addAll(bodyIds);
+    }
+    if (allIds.isEmpty()) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    int deleted = this.service.deleteAll(allIds);
+    return ResponseEntity.ok().body(new CustomerDeleteResult(deleted));
+  }
+
+  /**
+   * Monta a resposta de uma página de clientes, informando o cursor da próxima
+   * página no cabeçalho {@code X-Next-Cursor} quando houver.
+   *
+   * @param response O construtor da resposta.
+   * @param page     A página de clientes.
+   * @return A resposta com os clientes da página.
+   */
+  private static ResponseEntity<List<CustomerView>> withNextCursor(ResponseEntity.BodyBuilder response,
+      CustomerPage page) {
+    if (page.nextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+    }
+    return response.body(page.customers());
+  }
+
+  /**
+   * Monta a ETag forte de um cliente a partir do ID, da versão e do formato
+   * da resposta, por exemplo {@code "42-3"} em JSON e {@code "42-3+cbor"} em
+   * CBOR.
+   *
+   * @param id      O ID do cliente.
+   * @param version A versão do cliente.
+   * @param accept  O cabeçalho Accept da requisição, ou null.
+   * @return A ETag, entre aspas.
+   */
+  private static String eTag(Long id, Long version, String accept) {
+    return "\"" + id + "-" + version + representationSuffix(accept) + "\"";
+  }
+
+  /**
+   * Identifica, pelo cabeçalho Accept, o formato em que a resposta será
+   * escrita, da mesma forma que a negociação de conteúdo do Spring MVC: o
+   * primeiro formato compatível com o tipo aceito de maior preferência.
+   *
+   * @param accept O cabeçalho Accept, ou null.
+   * @return O sufixo do formato nas ETags; vazio para JSON.
+   */
+  private static String representationSuffix(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return "";
+    }
+    List<MediaType> acceptedTypes;
+    try {
+      acceptedTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+    } catch (InvalidMediaTypeException e) {
+      return "";
+    }
+    MimeTypeUtils.sortBySpecificity(acceptedTypes);
+    for (MediaType acceptedType : acceptedTypes) {
+      for (int i = 0; i < REPRESENTATIONS.size(); i++) {
+        if (acceptedType.isCompatibleWith(REPRESENTATIONS.get(i))) {
+          return REPRESENTATION_SUFFIXES.get(i);
+        }
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Extrai a versão esperada do cabeçalho If-Match, que pode trazer a ETag
+   * do cliente em qualquer um dos formatos.
+   *
+   * @param id      O ID do cliente sendo atualizado.
+   * @param ifMatch O valor do cabeçalho If-Match, ou null.
+   * @return A versão esperada, ou null se qualquer versão for aceita.
+   * @throws CustomerVersionMismatchException Se a ETag não for de uma versão
+   *                                          deste cliente.
+   */
+  private static Long expectedVersion(Long id, String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+
+    String prefix = "\"" + id + "-";
+    String value = ifMatch.trim();
+    if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+      String version = value.substring(prefix.length(), value.length() - 1);
+      for (String suffix : REPRESENTATION_SUFFIXES) {
+        if (!suffix.isEmpty() && version.endsWith(suffix)) {
+          version = version.substring(0, version.length() - suffix.length());
+          break;
+        }
+      }
+      try {
+        return Long.valueOf(version);
+      } catch (NumberFormatException e) {
+        throw new CustomerVersionMismatchException();
+      }
+    }
+    throw new CustomerVersionMismatchException();
+  }
 }
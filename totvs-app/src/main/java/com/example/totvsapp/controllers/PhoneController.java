@@ -0,0 +1,43 @@
+package com.example.totvsapp.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Controller responsável pela consulta reversa de clientes pelo número de
+ * telefone, usada pela integração de telefonia para identificar quem liga.
+ * <p>
+ * Como em {@link CustomerController}, a resposta pode ser JSON, CBOR ou Smile,
+ * conforme o cabeçalho Accept.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/phones")
+public class PhoneController {
+
+  @Autowired
+  private CustomerService service;
+
+  /**
+   * Manipula solicitações HTTP GET para recuperar o cliente dono de um número
+   * de telefone. O número pode ser enviado formatado, por exemplo
+   * {@code (11) 98765-4321}, desde que codificado na URL.
+   *
+   * @param number O número de telefone.
+   * @return ResponseEntity<CustomerView> Um objeto ResponseEntity contendo o
+   *         cliente dono do número e o status HTTP correspondente.
+   */
+  @GetMapping("/{number}")
+  public ResponseEntity<CustomerView> getCustomerByPhone(@PathVariable String number) {
+    CustomerView customer = this.service.getCustomerByPhone(number);
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(customer);
+  }
+}
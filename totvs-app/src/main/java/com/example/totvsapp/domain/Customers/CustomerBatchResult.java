@@ -0,0 +1,23 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * Resultado da inserção de um item de um lote de clientes.
+ * Quando o item é inserido, {@code id} contém o ID gerado e {@code error} é
+ * nulo; quando é rejeitado, {@code id} é nulo e {@code error} contém o código
+ * do erro.
+ *
+ * @param index   A posição do item no lote recebido.
+ * @param id      O ID do cliente criado, ou null se o item foi rejeitado.
+ * @param error   O código do erro, ou null se o item foi inserido.
+ * @param message A mensagem do erro, ou null se o item foi inserido.
+ */
+public record CustomerBatchResult(int index, Long id, String error, String message) {
+
+  public static CustomerBatchResult created(int index, Long id) {
+    return new CustomerBatchResult(index, id, null, null);
+  }
+
+  public static CustomerBatchResult failed(int index, String error, String message) {
+    return new CustomerBatchResult(index, null, error, message);
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * Evento de alteração de um cliente, publicado no feed de alterações após o
+ * commit da transação que o produziu.
+ *
+ * @param sequence   O número de sequência do evento, crescente e sem
+ *                   repetições; é o ID do evento no stream SSE.
+ * @param type       O tipo da alteração.
+ * @param customerId O ID do cliente alterado.
+ * @param customer   O cliente após a alteração, ou null se ele foi excluído.
+ */
+public record CustomerChange(long sequence, Type type, Long customerId, CustomerView customer) {
+
+  /**
+   * Tipo de alteração de um cliente.
+   */
+  public enum Type {
+    INSERTED, UPDATED, DELETED
+  }
+}
@@ -0,0 +1,10 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * Resultado da exclusão de um lote de clientes.
+ *
+ * @param deleted A quantidade de clientes excluídos. IDs inexistentes ou
+ *                repetidos não são contados.
+ */
+public record CustomerDeleteResult(int deleted) {
+}
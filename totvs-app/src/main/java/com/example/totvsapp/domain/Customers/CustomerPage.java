@@ -0,0 +1,32 @@
+package com.example.totvsapp.domain.Customers;
+
+import java.util.List;
+
+/**
+ * Página de clientes da listagem ou da busca.
+ *
+ * @param customers  Os clientes da página, na ordem da listagem ou da busca.
+ * @param nextCursor O cursor da próxima página, ou null se esta for a última.
+ *                   Na listagem é o ID do último cliente desta página; na
+ *                   busca, a quantidade de resultados já retornados.
+ */
+public record CustomerPage(List<CustomerView> customers, Long nextCursor) {
+
+  /**
+   * Calcula uma marca de versão da página a partir dos IDs e das versões dos
+   * seus clientes e do cursor da próxima página, sem consultar o banco. A
+   * marca muda quando um cliente da página é alterado, incluído ou excluído,
+   * ou quando surge ou deixa de existir uma próxima página.
+   *
+   * @return A marca de versão da página.
+   */
+  public String versionTag() {
+    long hash = 1;
+    for (CustomerView customer : customers) {
+      hash = 31 * hash + customer.id();
+      hash = 31 * hash + (customer.version() != null ? customer.version() : 0);
+    }
+    hash = 31 * hash + (nextCursor != null ? nextCursor : 0);
+    return customers.size() + "-" + Long.toHexString(hash);
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * Linha achatada de cliente e telefone, produzida por consultas com expressão
+ * de construtor. Por não ser uma entidade, não é registrada no contexto de
+ * persistência, o que permite percorrer a tabela inteira com memória constante.
+ *
+ * @param customerId O ID do cliente.
+ * @param name       O nome do cliente.
+ * @param address    O endereço do cliente.
+ * @param district   O bairro do cliente.
+ * @param version    A versão do cliente.
+ * @param phoneId    O ID do telefone, ou null se o cliente não tiver
+ *                   telefones.
+ * @param number     O número do telefone, ou null se o cliente não tiver
+ *                   telefones.
+ */
+public record CustomerPhoneRow(Long customerId, String name, String address, String district, Long version,
+    Long phoneId, String number) {
+}
@@ -0,0 +1,11 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * Campos de um cliente usados pela busca por nome e bairro.
+ *
+ * @param id       O ID do cliente.
+ * @param name     O nome do cliente.
+ * @param district O bairro do cliente.
+ */
+public record CustomerSearchRow(Long id, String name, String district) {
+}
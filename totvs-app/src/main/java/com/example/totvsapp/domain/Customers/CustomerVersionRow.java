@@ -0,0 +1,10 @@
+package com.example.totvsapp.domain.Customers;
+
+/**
+ * ID e versão de um cliente, usados na marca de versão da lista de clientes.
+ *
+ * @param id      O ID do cliente.
+ * @param version A versão do cliente.
+ */
+public record CustomerVersionRow(Long id, Long version) {
+}
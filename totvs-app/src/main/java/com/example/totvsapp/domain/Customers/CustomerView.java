@@ -0,0 +1,35 @@
+package com.example.totvsapp.domain.Customers;
+
+import java.util.List;
+
+import com.example.totvsapp.domain.Phones.PhoneView;
+
+/**
+ * Representação imutável de um cliente e seus telefones, desvinculada do
+ * contexto de persistência. Pode ser guardada em cache e compartilhada entre
+ * requisições sem expor entidades gerenciadas.
+ *
+ * @param id       O ID do cliente.
+ * @param name     O nome do cliente.
+ * @param address  O endereço do cliente.
+ * @param district O bairro do cliente.
+ * @param version  A versão do cliente, incrementada a cada alteração.
+ * @param phones   Os telefones do cliente.
+ */
+public record CustomerView(Long id, String name, String address, String district, Long version,
+    List<PhoneView> phones) {
+
+  public CustomerView {
+    phones = List.copyOf(phones);
+  }
+
+  public static CustomerView from(Customers customer) {
+    return new CustomerView(
+        customer.getId(),
+        customer.getName(),
+        customer.getAddress(),
+        customer.getDistrict(),
+        customer.getVersion(),
+        customer.getPhones().stream().map(PhoneView::from).toList());
+  }
+}
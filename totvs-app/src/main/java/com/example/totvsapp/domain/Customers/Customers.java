@@ -11,7 +11,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -28,7 +30,8 @@ import lombok.Setter;
 public class Customers {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+  @SequenceGenerator(name = "customer_seq", sequenceName = "customer_seq", allocationSize = 50)
   private Long id;
 
   private String name;
@@ -37,6 +40,9 @@ public class Customers {
 
   private String district;
 
+  @Version
+  private Long version;
+
   @OneToMany(mappedBy = "customers", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<Phones> phones;
 
@@ -0,0 +1,85 @@
+package com.example.totvsapp.domain.Phones;
+
+/**
+ * Regras da forma canônica de um número de telefone e sua codificação como um
+ * {@code long}.
+ * <p>
+ * A forma canônica contém apenas os dígitos do DDD e do número (10 ou 11
+ * dígitos, sem zero à esquerda). Entradas formatadas como
+ * {@code "(11) 98765-4321"} são normalizadas para {@code 11987654321}. Como o
+ * primeiro dígito nunca é zero, a codificação numérica preserva todos os
+ * dígitos, e é ela que a coluna {@code phones.number} guarda.
+ * </p>
+ * <p>
+ * O número continua exposto como texto em {@link Phones} e nas respostas da
+ * API; esta classe apenas valida, normaliza e codifica, sem instâncias.
+ * </p>
+ */
+public final class PhoneNumber {
+
+  /**
+   * Valor retornado por {@link #encode(CharSequence)} quando a entrada não é um
+   * número de telefone válido.
+   */
+  public static final long INVALID = -1L;
+
+  private static final int MIN_DIGITS = 10;
+
+  private static final int MAX_DIGITS = 11;
+
+  private PhoneNumber() {
+  }
+
+  /**
+   * Converte um número de telefone em sua forma numérica percorrendo a entrada
+   * uma única vez, sem alocar objetos. Espaços, parênteses, hífens e pontos são
+   * ignorados; qualquer outro caractere torna a entrada inválida.
+   *
+   * @param input O número de telefone, formatado ou não.
+   * @return O valor numérico do telefone, ou {@link #INVALID} se a entrada não
+   *         tiver entre 10 e 11 dígitos ou começar por zero.
+   */
+  public static long encode(CharSequence input) {
+    if (input == null) {
+      return INVALID;
+    }
+
+    long value = 0;
+    int digits = 0;
+    for (int i = 0, length = input.length(); i < length; i++) {
+      char c = input.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (digits == MAX_DIGITS || (digits == 0 && c == '0')) {
+          return INVALID;
+        }
+        value = value * 10 + (c - '0');
+        digits++;
+      } else if (c != ' ' && c != '(' && c != ')' && c != '-' && c != '.') {
+        return INVALID;
+      }
+    }
+
+    return digits >= MIN_DIGITS ? value : INVALID;
+  }
+
+  /**
+   * Verifica se uma entrada representa um número de telefone válido.
+   *
+   * @param input O número de telefone, formatado ou não.
+   * @return true se a entrada puder ser normalizada, false caso contrário.
+   */
+  public static boolean isValid(CharSequence input) {
+    return encode(input) != INVALID;
+  }
+
+  /**
+   * Normaliza um número de telefone para a forma canônica em texto.
+   *
+   * @param input O número de telefone, formatado ou não.
+   * @return Os dígitos do telefone, ou null se a entrada for inválida.
+   */
+  public static String normalize(CharSequence input) {
+    long value = encode(input);
+    return value == INVALID ? null : Long.toString(value);
+  }
+}
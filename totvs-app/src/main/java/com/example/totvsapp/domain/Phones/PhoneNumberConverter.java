@@ -0,0 +1,30 @@
+package com.example.totvsapp.domain.Phones;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Persiste o número de telefone canônico como BIGINT, para que as consultas
+ * por número comparem inteiros em vez de textos.
+ */
+@Converter
+public class PhoneNumberConverter implements AttributeConverter<String, Long> {
+
+  @Override
+  public Long convertToDatabaseColumn(String number) {
+    if (number == null) {
+      return null;
+    }
+
+    long value = PhoneNumber.encode(number);
+    if (value == PhoneNumber.INVALID) {
+      throw new IllegalArgumentException("Número de telefone inválido: " + number);
+    }
+    return value;
+  }
+
+  @Override
+  public String convertToEntityAttribute(Long value) {
+    return value == null ? null : Long.toString(value);
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.totvsapp.domain.Phones;
+
+/**
+ * Representação imutável de um telefone, desvinculada do contexto de
+ * persistência.
+ *
+ * @param id     O ID do telefone.
+ * @param number O número do telefone.
+ */
+public record PhoneView(Long id, String number) {
+
+  public static PhoneView from(Phones phone) {
+    return new PhoneView(phone.getId(), phone.getNumber());
+  }
+}
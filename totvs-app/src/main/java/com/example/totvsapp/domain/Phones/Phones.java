@@ -1,32 +1,51 @@
 package com.example.totvsapp.domain.Phones;
 
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import com.example.totvsapp.domain.Customers.Customers;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity(name = "phones")
-@Table(name = "phones")
+@Table(name = "phones", indexes = {
+    @Index(name = "idx_phones_number", columnList = "number", unique = true),
+    @Index(name = "idx_phones_customer_id", columnList = "customer_id, id, number")
+})
 @Getter
 @Setter
 public class Phones {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phones_seq")
+  @SequenceGenerator(name = "phones_seq", sequenceName = "phones_seq", allocationSize = 50)
   private Long id;
 
+  @Column(columnDefinition = "bigint")
+  @Convert(converter = PhoneNumberConverter.class)
   private String number;
 
+  /**
+   * O cliente dono do telefone. A chave estrangeira é criada com
+   * {@code ON DELETE CASCADE}, de modo que excluir clientes em lote exclui
+   * também os seus telefones, sem uma instrução por telefone.
+   */
   @ManyToOne(optional = false)
   @JoinColumn(name = "customer_id")
+  @OnDelete(action = OnDeleteAction.CASCADE)
   @JsonIgnore
   private Customers customers;
 
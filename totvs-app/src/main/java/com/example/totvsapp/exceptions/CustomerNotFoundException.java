@@ -2,10 +2,10 @@ package com.example.totvsapp.exceptions;
 
 /**
  * Exceção lançada quando um cliente não é encontrado.
- * Esta exceção estende RuntimeException, indicando que é uma exceção não
- * verificada.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
  */
-public class CustomerNotFoundException extends RuntimeException {
+public class CustomerNotFoundException extends DomainException {
 
   /**
    * Construtor padrão que cria uma instância de CustomerNotFoundException com uma
@@ -0,0 +1,30 @@
+package com.example.totvsapp.exceptions;
+
+/**
+ * Exceção lançada quando a versão informada pelo cliente da API (cabeçalho
+ * If-Match) não corresponde à versão atual do cliente.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
+ */
+public class CustomerVersionMismatchException extends DomainException {
+
+  /**
+   * Construtor padrão que cria uma instância de
+   * CustomerVersionMismatchException com uma mensagem padrão.
+   * A mensagem padrão é "Cliente alterado por outra requisição".
+   */
+  public CustomerVersionMismatchException() {
+    super("Cliente alterado por outra requisição");
+  }
+
+  /**
+   * Construtor que cria uma instância de CustomerVersionMismatchException com
+   * uma mensagem personalizada.
+   *
+   * @param message Uma mensagem personalizada indicando detalhes específicos
+   *                sobre a exceção.
+   */
+  public CustomerVersionMismatchException(String message) {
+    super(message);
+  }
+}
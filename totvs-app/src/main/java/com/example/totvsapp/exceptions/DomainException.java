@@ -0,0 +1,24 @@
+package com.example.totvsapp.exceptions;
+
+/**
+ * Classe base das exceções de regra de negócio da aplicação.
+ * <p>
+ * Estas exceções são lançadas para rejeitar requisições inválidas, um caminho
+ * tão frequente quanto o de sucesso, e são sempre tratadas pelo
+ * {@code RestExceptionHandler}. Por isso não capturam a pilha de execução nem
+ * aceitam exceções suprimidas: criá-las custa apenas a alocação do objeto e da
+ * mensagem. A pilha não seria útil de qualquer forma, já que a exceção
+ * descreve um erro do cliente da API, e não da aplicação.
+ * </p>
+ */
+public abstract class DomainException extends RuntimeException {
+
+  /**
+   * Construtor que cria uma exceção sem pilha de execução.
+   *
+   * @param message A mensagem da exceção, enviada ao cliente da API.
+   */
+  protected DomainException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -2,10 +2,10 @@ package com.example.totvsapp.exceptions;
 
 /**
  * Exceção lançada quando um telefone já está vinculado a outro cliente.
- * Esta exceção estende RuntimeException, indicando que é uma exceção não
- * verificada.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
  */
-public class PhoneAlreadyLinkedException extends RuntimeException {
+public class PhoneAlreadyLinkedException extends DomainException {
 
   /**
    * Construtor padrão que cria uma instância de PhoneAlreadyLinkedException com
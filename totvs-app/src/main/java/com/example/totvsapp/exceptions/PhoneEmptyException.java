@@ -2,10 +2,10 @@ package com.example.totvsapp.exceptions;
 
 /**
  * Exceção lançada quando um telefone é encontrado como vazio.
- * Esta exceção estende RuntimeException, indicando que é uma exceção não
- * verificada.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
  */
-public class PhoneEmptyException extends RuntimeException {
+public class PhoneEmptyException extends DomainException {
 
   /**
    * Construtor padrão que cria uma instância de PhoneEmptyException com uma
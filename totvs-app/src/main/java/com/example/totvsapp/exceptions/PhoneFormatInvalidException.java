@@ -3,10 +3,10 @@ package com.example.totvsapp.exceptions;
 /**
  * Exceção lançada quando um formato inválido é detectado para um número de
  * telefone.
- * Esta exceção estende RuntimeException, indicando que é uma exceção não
- * verificada.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
  */
-public class PhoneFormatInvalidException extends RuntimeException {
+public class PhoneFormatInvalidException extends DomainException {
 
   /**
    * Construtor que cria uma instância de PhoneFormatInvalidException com uma
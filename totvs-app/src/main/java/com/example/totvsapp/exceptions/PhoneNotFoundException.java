@@ -0,0 +1,19 @@
+package com.example.totvsapp.exceptions;
+
+/**
+ * Exceção lançada quando um número de telefone não está vinculado a nenhum
+ * cliente.
+ * Esta exceção estende DomainException e, portanto, não captura a pilha de
+ * execução.
+ */
+public class PhoneNotFoundException extends DomainException {
+
+  /**
+   * Construtor padrão que cria uma instância de PhoneNotFoundException com uma
+   * mensagem padrão.
+   * A mensagem padrão é "Telefone não encontrado".
+   */
+  public PhoneNotFoundException() {
+    super("Telefone não encontrado");
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.totvsapp.infra;
+
+import java.time.Duration;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada, no
+ * esquema AIMD (aumento aditivo, redução multiplicativa) do controle de
+ * congestionamento do TCP.
+ * <p>
+ * Cada requisição concluída dentro de {@code latencyThreshold} com o limite em
+ * uso (pelo menos metade dele ocupado) aumenta o limite em {@code 1/limite},
+ * ou seja, cerca de uma unidade a cada janela de requisições. Uma requisição
+ * lenta ou com erro reduz o limite pela razão {@value #BACKOFF_RATIO}, no
+ * máximo uma vez por janela: requisições iniciadas antes da última redução não
+ * o reduzem de novo, para que uma rajada de respostas lentas não derrube o
+ * limite ao mínimo de uma vez.
+ * </p>
+ */
+final class AdaptiveConcurrencyLimit {
+
+  static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final long latencyThresholdNanos;
+
+  private double limit;
+
+  private int inFlight;
+
+  private boolean decreased;
+
+  private long lastDecreaseNanos;
+
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+  }
+
+  /**
+   * Reserva uma vaga para uma requisição.
+   *
+   * @return true se a requisição pode ser processada, ou false se o limite foi
+   *         atingido.
+   */
+  synchronized boolean tryAcquire() {
+    if (inFlight >= (int) limit) {
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Libera a vaga de uma requisição concluída e ajusta o limite pela sua
+   * latência.
+   *
+   * @param startNanos O instante de início da requisição, de
+   *                   {@link System#nanoTime()}.
+   * @param endNanos   O instante de conclusão da requisição.
+   * @param failed     Se a requisição terminou com erro do servidor.
+   */
+  synchronized void release(long startNanos, long endNanos, boolean failed) {
+    int used = inFlight;
+    inFlight--;
+
+    if (failed || endNanos - startNanos > latencyThresholdNanos) {
+      if (!decreased || startNanos - lastDecreaseNanos > 0) {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        decreased = true;
+        lastDecreaseNanos = endNanos;
+      }
+    } else if (used * 2 >= (int) limit) {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+  }
+
+  /**
+   * Libera a vaga de uma requisição sem ajustar o limite, para requisições
+   * cuja duração não reflete a saturação da aplicação, como exportações.
+   */
+  synchronized void releaseWithoutSample() {
+    inFlight--;
+  }
+
+  synchronized int limit() {
+    return (int) limit;
+  }
+
+  synchronized int inFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.totvsapp.infra;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Registra os formatos binários CBOR ({@code application/cbor}) e Smile
+ * ({@code application/x-jackson-smile}) para os corpos de requisição e de
+ * resposta, além do JSON.
+ *
+ * <p>
+ * O formato é escolhido pelos cabeçalhos Content-Type e Accept. Os conversores
+ * usam o {@link Jackson2ObjectMapperBuilder} do Spring Boot, de modo que as
+ * mesmas configurações e módulos do JSON valem para os formatos binários.
+ * Substituem os conversores padrão do Spring MVC para esses formatos, que
+ * ignorariam essas configurações.
+ * </p>
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+  }
+}
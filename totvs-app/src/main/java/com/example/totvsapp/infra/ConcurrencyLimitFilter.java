@@ -0,0 +1,203 @@
+package com.example.totvsapp.infra;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filtro que limita as requisições simultâneas da API de clientes (inclusive
+ * a consulta por telefone) e descarta o excedente.
+ *
+ * <p>
+ * Leituras ({@code GET} e {@code HEAD}) e escritas têm limites separados, de
+ * modo que uma rajada de listagens não bloqueia as inserções, e vice-versa.
+ * Cada limite é ajustado pela latência observada, como descrito em
+ * {@link AdaptiveConcurrencyLimit}: cresce enquanto as requisições respondem
+ * dentro de {@code totvs.concurrency-limit.<reads|writes>.latency-threshold}
+ * e diminui quando elas ficam lentas ou falham, por exemplo porque as conexões
+ * do banco se esgotaram. Uma requisição acima do limite recebe 503 com
+ * {@code Retry-After} imediatamente, sem esperar na fila do Tomcat ou do pool
+ * de conexões.
+ * </p>
+ *
+ * <p>
+ * As requisições admitidas ainda disputam as permissões do
+ * {@link DatabasePermitDataSource} ao usar o banco. O feed de alterações
+ * não é limitado, pois mantém a conexão aberta e não usa o banco; a exportação
+ * ocupa uma vaga de leitura, mas sua duração não ajusta o limite. O limite
+ * atual, as requisições em andamento e as rejeitadas são publicados nas
+ * métricas {@code customers.concurrency.limit},
+ * {@code customers.concurrency.in-flight} e
+ * {@code customers.concurrency.rejected}, com a tag {@code type} igual a
+ * {@code read} ou {@code write}.
+ * </p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final String CHANGES_PATH = "/api/customers/changes";
+
+  private static final String EXPORT_PATH = "/api/customers/export";
+
+  private final boolean enabled;
+
+  private final AdaptiveConcurrencyLimit reads;
+
+  private final AdaptiveConcurrencyLimit writes;
+
+  private final Counter rejectedReads;
+
+  private final Counter rejectedWrites;
+
+  public ConcurrencyLimitFilter(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.concurrency-limit.enabled:true}") boolean enabled,
+      @Value("${totvs.concurrency-limit.min-limit:2}") int minLimit,
+      @Value("${totvs.concurrency-limit.reads.initial-limit:20}") int readInitialLimit,
+      @Value("${totvs.concurrency-limit.reads.max-limit:200}") int readMaxLimit,
+      @Value("${totvs.concurrency-limit.reads.latency-threshold:500ms}") Duration readLatencyThreshold,
+      @Value("${totvs.concurrency-limit.writes.initial-limit:10}") int writeInitialLimit,
+      @Value("${totvs.concurrency-limit.writes.max-limit:50}") int writeMaxLimit,
+      @Value("${totvs.concurrency-limit.writes.latency-threshold:1s}") Duration writeLatencyThreshold) {
+    this.enabled = enabled;
+    this.reads = new AdaptiveConcurrencyLimit(readInitialLimit, minLimit, readMaxLimit, readLatencyThreshold);
+    this.writes = new AdaptiveConcurrencyLimit(writeInitialLimit, minLimit, writeMaxLimit, writeLatencyThreshold);
+    this.rejectedReads = register(meterRegistry, "read", reads);
+    this.rejectedWrites = register(meterRegistry, "write", writes);
+  }
+
+  private static Counter register(MeterRegistry meterRegistry, String type, AdaptiveConcurrencyLimit limit) {
+    Gauge.builder("customers.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+        .description("Limite atual de requisições simultâneas da API de clientes")
+        .tag("type", type)
+        .register(meterRegistry);
+    Gauge.builder("customers.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+        .description("Requisições da API de clientes em andamento")
+        .tag("type", type)
+        .register(meterRegistry);
+    return Counter.builder("customers.concurrency.rejected")
+        .description("Requisições da API de clientes rejeitadas por excederem o limite")
+        .tag("type", type)
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String uri = request.getRequestURI();
+    return !enabled || !(uri.startsWith("/api/customers") || uri.startsWith("/api/phones"))
+        || uri.equals(CHANGES_PATH);
+  }
+
+  /**
+   * Reserva uma vaga no limite de leitura ou de escrita antes de processar a
+   * requisição e a libera ao final, ou responde 503 se não houver vaga.
+   *
+   * @param request     A solicitação HTTP recebida.
+   * @param response    A resposta HTTP que será enviada.
+   * @param filterChain O filtro da cadeia para continuar o processamento da
+   *                    solicitação.
+   *
+   * @throws ServletException Se ocorrer uma exceção durante o processamento do
+   *                          filtro.
+   * @throws IOException      Se ocorrer uma exceção de entrada/saída durante o
+   *                          processamento do filtro.
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    AdaptiveConcurrencyLimit limit = read ? reads : writes;
+
+    if (!limit.tryAcquire()) {
+      (read ? rejectedReads : rejectedWrites).increment();
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      return;
+    }
+
+    boolean sampled = !request.getRequestURI().equals(EXPORT_PATH);
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = false;
+    } finally {
+      if (!failed && request.isAsyncStarted()) {
+        // Respostas assíncronas, como a exportação, liberam a vaga ao terminar
+        request.getAsyncContext().addListener(new ReleaseListener(limit, start, sampled));
+      } else {
+        release(limit, start, sampled, failed || response.getStatus() >= 500);
+      }
+    }
+  }
+
+  private static void release(AdaptiveConcurrencyLimit limit, long start, boolean sampled, boolean failed) {
+    if (sampled) {
+      limit.release(start, System.nanoTime(), failed);
+    } else {
+      limit.releaseWithoutSample();
+    }
+  }
+
+  /**
+   * Libera a vaga de uma requisição assíncrona quando ela termina. O servlet
+   * container sempre chama {@code onComplete}, inclusive após um erro ou
+   * tempo esgotado.
+   */
+  private static final class ReleaseListener implements AsyncListener {
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    private final long start;
+
+    private final boolean sampled;
+
+    private boolean failed;
+
+    ReleaseListener(AdaptiveConcurrencyLimit limit, long start, boolean sampled) {
+      this.limit = limit;
+      this.start = start;
+      this.sampled = sampled;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+      release(limit, start, sampled, failed || response.getStatus() >= 500);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      failed = true;
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      failed = true;
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // A vaga continua reservada até o fim da requisição
+    }
+  }
+}
@@ -2,6 +2,8 @@ package com.example.totvsapp.infra;
 
 import java.io.IOException;
 
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -19,7 +21,9 @@ import jakarta.servlet.http.HttpServletResponse;
  * Configura os cabeçalhos CORS necessários para permitir solicitações de
  * qualquer origem,
  * métodos permitidos (GET, POST, PUT, DELETE, OPTIONS), headers permitidos
- * (authorization, content-type, xsrf-token), desativa a autenticação de
+ * (authorization, content-type, xsrf-token, if-match, if-none-match,
+ * last-event-id), expõe os
+ * cabeçalhos ETag, X-Next-Cursor, Retry-After e Server-Timing, desativa a autenticação de
  * credenciais
  * (Access-Control-Allow-Credentials: false) e define um tempo máximo de cache
  * para preflight requests.
@@ -33,8 +37,13 @@ import jakarta.servlet.http.HttpServletResponse;
  * de segurança do seu projeto.
  * </p>
  * 
+ * <p>
+ * O filtro roda antes dos demais para que as respostas 503 dos filtros de
+ * limite de concorrência também tragam os cabeçalhos CORS.
+ * </p>
  */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class Cors extends OncePerRequestFilter {
 
   /**
@@ -55,7 +64,9 @@ public class Cors extends OncePerRequestFilter {
       throws ServletException, IOException {
     response.setHeader("Access-Control-Allow-Origin", "*");
     response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-    response.setHeader("Access-Control-Allow-Headers", "authorization, content-type, xsrf-token");
+    response.setHeader("Access-Control-Allow-Headers",
+        "authorization, content-type, xsrf-token, if-match, if-none-match, last-event-id");
+    response.setHeader("Access-Control-Expose-Headers", "etag, x-next-cursor, retry-after, server-timing");
     response.setHeader("Access-Control-Allow-Credentials", "false");
     response.setHeader("Access-Control-Max-Age", "3600");
     filterChain.doFilter(request, response);
@@ -0,0 +1,15 @@
+package com.example.totvsapp.infra;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Lançada quando uma conexão com o banco não é obtida porque todas as
+ * permissões do {@link DatabasePermitDataSource} continuaram em uso durante
+ * todo o tempo de espera. É respondida com 503 e {@code Retry-After}.
+ */
+public class DatabaseBusyException extends SQLTransientConnectionException {
+
+  public DatabaseBusyException() {
+    super("Banco de dados ocupado, tente novamente");
+  }
+}
@@ -0,0 +1,47 @@
+package com.example.totvsapp.infra;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Envolve o {@code DataSource} em um {@link DatabasePermitDataSource} quando a
+ * aplicação atende em threads virtuais.
+ * <p>
+ * Com threads de plataforma, o próprio pool do Tomcat limita a concorrência.
+ * Com threads virtuais ({@code spring.threads.virtual.enabled=true}) cada
+ * requisição ganha uma thread, e milhares delas ficariam bloqueadas na fila do
+ * pool de conexões do Hikari até estourar o tempo limite. As permissões
+ * limitam essa espera a {@code totvs.db-permits.acquire-timeout}, depois da
+ * qual a requisição recebe 503. Com threads de plataforma o
+ * {@code DataSource} não é envolvido.
+ * </p>
+ */
+@Configuration
+public class DatabasePermitConfig {
+
+  @Bean
+  public static BeanPostProcessor databasePermitDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+      @Value("${totvs.db-permits.acquire-timeout:2s}") Duration acquireTimeout) {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!virtualThreads || !(bean instanceof DataSource dataSource) || bean instanceof DatabasePermitDataSource) {
+          return bean;
+        }
+        return new DatabasePermitDataSource(dataSource, poolSize, acquireTimeout, meterRegistry.getObject());
+      }
+    };
+  }
+}
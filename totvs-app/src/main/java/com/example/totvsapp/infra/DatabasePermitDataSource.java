@@ -0,0 +1,109 @@
+package com.example.totvsapp.infra;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@code DataSource} que limita quantas conexões estão em uso ao mesmo tempo
+ * com um semáforo justo, com tantas permissões quanto conexões no pool.
+ * <p>
+ * A permissão é obtida ao pedir a conexão e devolvida ao fechá-la, de modo que
+ * corresponde ao uso real do banco: requisições atendidas pelos caches não
+ * ocupam permissões, e a exportação em streaming ocupa uma durante todo o
+ * tempo em que mantém a conexão aberta, mesmo depois de a thread da
+ * requisição ser liberada. Quem não obtém a permissão em
+ * {@code totvs.db-permits.acquire-timeout} recebe
+ * {@link DatabaseBusyException}, em vez de esperar na fila do Hikari.
+ * </p>
+ */
+class DatabasePermitDataSource extends DelegatingDataSource {
+
+  private final Semaphore permits;
+
+  private final long acquireTimeoutNanos;
+
+  DatabasePermitDataSource(DataSource dataSource, int permits, Duration acquireTimeout, MeterRegistry meterRegistry) {
+    super(dataSource);
+    this.permits = new Semaphore(permits, true);
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+
+    Gauge.builder("db.permits.available", this.permits, Semaphore::availablePermits)
+        .description("Permissões de acesso ao banco disponíveis")
+        .register(meterRegistry);
+    Gauge.builder("db.permits.waiting", this.permits, Semaphore::getQueueLength)
+        .description("Threads aguardando permissão de acesso ao banco")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return withPermit(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return withPermit(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      throw new DatabaseBusyException();
+    }
+  }
+
+  /**
+   * Envolve a conexão para devolver a permissão no primeiro
+   * {@link Connection#close()}.
+   */
+  private Connection withPermit(Connection connection) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+        (proxy, method, args) -> switch (method.getName()) {
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> {
+            try {
+              yield method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            } finally {
+              if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                permits.release();
+              }
+            }
+          }
+        });
+  }
+}
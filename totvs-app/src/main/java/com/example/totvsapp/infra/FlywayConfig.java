@@ -0,0 +1,32 @@
+package com.example.totvsapp.infra;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Aplica as migrações do Flyway na subida somente se
+ * {@code spring.flyway.enabled} for verdadeiro no momento da execução.
+ * <p>
+ * Com {@code spring.aot.enabled=true}, as condições da autoconfiguração são
+ * avaliadas no build (perfil {@code fast-startup}), e a propriedade deixa de
+ * ter efeito: o bean {@code flyway} é criado mesmo na execução de treino do
+ * arquivo CDS, que sobe sem banco. Este bean faz a propriedade valer também
+ * nesse caso. Para que a criação do bean não abra uma conexão, os locais das
+ * migrações são informados sem o marcador {@code {vendor}}, que o Flyway
+ * resolveria consultando o banco.
+ * </p>
+ */
+@Configuration
+public class FlywayConfig {
+
+  @Bean
+  public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.flyway.enabled:true}") boolean enabled) {
+    return flyway -> {
+      if (enabled) {
+        flyway.migrate();
+      }
+    };
+  }
+}
@@ -1,73 +1,266 @@
 package com.example.totvsapp.infra;
 
+import java.net.URI;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import com.example.totvsapp.exceptions.CustomerNotFoundException;
+import com.example.totvsapp.exceptions.CustomerVersionMismatchException;
 import com.example.totvsapp.exceptions.PhoneAlreadyLinkedException;
 import com.example.totvsapp.exceptions.PhoneEmptyException;
 import com.example.totvsapp.exceptions.PhoneFormatInvalidException;
+import com.example.totvsapp.exceptions.PhoneNotFoundException;
 
 /**
  * Uma classe de controle de exceções para lidar com exceções específicas e
  * fornecer respostas padronizadas em uma API REST.
+ * <p>
+ * Os erros são respondidos no formato da RFC 7807
+ * ({@code application/problem+json}), como os erros do próprio Spring MVC
+ * tratados pela classe base. O tipo, o título e o status de cada erro ficam em
+ * modelos criados uma única vez; a cada requisição, apenas o
+ * {@link ProblemDetail} é criado, com a mensagem da exceção como detalhe.
+ * </p>
  */
 @ControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 
+  /**
+   * O índice único que garante que um número pertence a um único cliente,
+   * criado pelas migrações.
+   */
+  private static final String PHONES_NUMBER_INDEX = "idx_phones_number";
+
+  private static final ProblemTemplate CUSTOMER_NOT_FOUND = new ProblemTemplate(HttpStatus.NOT_FOUND,
+      "customer-not-found", "Cliente não encontrado");
+
+  private static final ProblemTemplate CUSTOMER_VERSION_MISMATCH = new ProblemTemplate(
+      HttpStatus.PRECONDITION_FAILED, "customer-version-mismatch", "Versão do cliente divergente");
+
+  private static final ProblemTemplate CUSTOMER_CONCURRENT_UPDATE = new ProblemTemplate(HttpStatus.CONFLICT,
+      "customer-concurrent-update", "Cliente alterado por outra requisição");
+
+  private static final ProblemTemplate PHONE_ALREADY_LINKED = new ProblemTemplate(HttpStatus.BAD_REQUEST,
+      "phone-already-linked", "Telefone já vinculado");
+
+  private static final ProblemTemplate PHONE_FORMAT_INVALID = new ProblemTemplate(HttpStatus.BAD_REQUEST,
+      "phone-format-invalid", "Formato de telefone inválido");
+
+  private static final ProblemTemplate PHONE_EMPTY = new ProblemTemplate(HttpStatus.BAD_REQUEST,
+      "phone-empty", "Telefone vazio");
+
+  private static final ProblemTemplate PHONE_NOT_FOUND = new ProblemTemplate(HttpStatus.NOT_FOUND,
+      "phone-not-found", "Telefone não encontrado");
+
+  private static final ProblemTemplate DATABASE_BUSY = new ProblemTemplate(HttpStatus.SERVICE_UNAVAILABLE,
+      "database-busy", "Banco de dados ocupado");
+
   /**
    * Manipula exceções do tipo CustomerNotFoundException.
    *
    * @param exception A exceção lançada.
-   * @return ResponseEntity contendo um objeto RestErrorMessage com status
-   *         NOT_FOUND e a mensagem de erro.
+   * @return ResponseEntity contendo um ProblemDetail com status NOT_FOUND e a
+   *         mensagem de erro.
    */
   @ExceptionHandler(CustomerNotFoundException.class)
-  private ResponseEntity<RestErrorMessage> customerNotFoundHandler(CustomerNotFoundException exception) {
-    RestErrorMessage response = new RestErrorMessage(HttpStatus.NOT_FOUND, exception.getMessage());
-    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+  private ResponseEntity<ProblemDetail> customerNotFoundHandler(CustomerNotFoundException exception) {
+    return CUSTOMER_NOT_FOUND.response(exception.getMessage());
+  }
+
+  /**
+   * Manipula exceções do tipo CustomerVersionMismatchException.
+   *
+   * @param exception A exceção lançada.
+   * @return ResponseEntity contendo um ProblemDetail com status
+   *         PRECONDITION_FAILED e a mensagem de erro.
+   */
+  @ExceptionHandler(CustomerVersionMismatchException.class)
+  private ResponseEntity<ProblemDetail> customerVersionMismatchHandler(CustomerVersionMismatchException exception) {
+    return CUSTOMER_VERSION_MISMATCH.response(exception.getMessage());
+  }
+
+  /**
+   * Manipula exceções do tipo OptimisticLockingFailureException, lançadas
+   * quando outra requisição altera o cliente durante a atualização.
+   *
+   * @param exception A exceção lançada.
+   * @return ResponseEntity contendo um ProblemDetail com status CONFLICT e a
+   *         mensagem de erro.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  private ResponseEntity<ProblemDetail> optimisticLockingFailureHandler(
+      OptimisticLockingFailureException exception) {
+    return CUSTOMER_CONCURRENT_UPDATE.response("Cliente alterado por outra requisição");
   }
 
   /**
    * Manipula exceções do tipo PhoneAlreadyLinkedException.
    *
    * @param exception A exceção lançada.
-   * @return ResponseEntity contendo um objeto RestErrorMessage com status
-   *         BAD_REQUEST e a mensagem de erro.
+   * @return ResponseEntity contendo um ProblemDetail com status BAD_REQUEST e a
+   *         mensagem de erro.
    */
   @ExceptionHandler(PhoneAlreadyLinkedException.class)
-  private ResponseEntity<RestErrorMessage> phoneAlreadyLinkedHandler(PhoneAlreadyLinkedException exception) {
-    RestErrorMessage response = new RestErrorMessage(HttpStatus.BAD_REQUEST, exception.getMessage());
-    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+  private ResponseEntity<ProblemDetail> phoneAlreadyLinkedHandler(PhoneAlreadyLinkedException exception) {
+    return PHONE_ALREADY_LINKED.response(exception.getMessage());
+  }
+
+  /**
+   * Manipula exceções do tipo DataIntegrityViolationException.
+   * <p>
+   * Duas requisições simultâneas podem vincular o mesmo número a clientes
+   * diferentes: ambas passam pela verificação prévia e uma delas é barrada pelo
+   * índice único {@value #PHONES_NUMBER_INDEX} no commit. Essa violação recebe
+   * a mesma resposta da verificação prévia. As demais violações são relançadas
+   * e seguem como erro interno.
+   * </p>
+   *
+   * @param exception A exceção lançada.
+   * @return ResponseEntity contendo um ProblemDetail com status BAD_REQUEST e a
+   *         mensagem de PhoneAlreadyLinkedException.
+   */
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  private ResponseEntity<ProblemDetail> dataIntegrityViolationHandler(DataIntegrityViolationException exception) {
+    if (!violates(exception, PHONES_NUMBER_INDEX)) {
+      throw exception;
+    }
+    return PHONE_ALREADY_LINKED.response(new PhoneAlreadyLinkedException().getMessage());
   }
 
   /**
    * Manipula exceções do tipo PhoneFormatInvalidException.
    *
    * @param exception A exceção lançada.
-   * @return ResponseEntity contendo um objeto RestErrorMessage com status
-   *         BAD_REQUEST e a mensagem de erro.
+   * @return ResponseEntity contendo um ProblemDetail com status BAD_REQUEST e a
+   *         mensagem de erro.
    */
   @ExceptionHandler(PhoneFormatInvalidException.class)
-  private ResponseEntity<RestErrorMessage> invalidPhoneNumberFormatHandler(
-      PhoneFormatInvalidException exception) {
-    RestErrorMessage response = new RestErrorMessage(HttpStatus.BAD_REQUEST, exception.getMessage());
-    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+  private ResponseEntity<ProblemDetail> invalidPhoneNumberFormatHandler(PhoneFormatInvalidException exception) {
+    return PHONE_FORMAT_INVALID.response(exception.getMessage());
   }
 
   /**
    * Manipula exceções do tipo PhoneEmptyException.
    *
    * @param exception A exceção lançada.
-   * @return ResponseEntity contendo um objeto RestErrorMessage com status
-   *         BAD_REQUEST e a mensagem de erro.
+   * @return ResponseEntity contendo um ProblemDetail com status BAD_REQUEST e a
+   *         mensagem de erro.
    */
   @ExceptionHandler(PhoneEmptyException.class)
-  private ResponseEntity<RestErrorMessage> emptyPhoneNumberHandler(PhoneEmptyException exception) {
-    RestErrorMessage response = new RestErrorMessage(HttpStatus.BAD_REQUEST, exception.getMessage());
-    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+  private ResponseEntity<ProblemDetail> emptyPhoneNumberHandler(PhoneEmptyException exception) {
+    return PHONE_EMPTY.response(exception.getMessage());
+  }
+
+  /**
+   * Manipula exceções do tipo PhoneNotFoundException.
+   *
+   * @param exception A exceção lançada.
+   * @return ResponseEntity contendo um ProblemDetail com status NOT_FOUND e a
+   *         mensagem de erro.
+   */
+  @ExceptionHandler(PhoneNotFoundException.class)
+  private ResponseEntity<ProblemDetail> phoneNotFoundHandler(PhoneNotFoundException exception) {
+    return PHONE_NOT_FOUND.response(exception.getMessage());
+  }
+
+  /**
+   * Manipula as exceções de transação e de acesso a dados que não têm um
+   * manipulador mais específico.
+   * <p>
+   * Quando a conexão não foi obtida porque as permissões do
+   * {@link DatabasePermitDataSource} se esgotaram, a resposta é 503 com
+   * {@code Retry-After}, de modo que o cliente tente novamente em vez de tratar
+   * a falha como erro interno. As demais exceções são relançadas.
+   * </p>
+   *
+   * @param exception A exceção lançada.
+   * @return ResponseEntity contendo um ProblemDetail com status
+   *         SERVICE_UNAVAILABLE e a mensagem de DatabaseBusyException.
+   */
+  @ExceptionHandler({ TransactionException.class, DataAccessException.class })
+  private ResponseEntity<ProblemDetail> databaseBusyHandler(NestedRuntimeException exception) {
+    DatabaseBusyException busy = findCause(exception, DatabaseBusyException.class);
+    if (busy == null) {
+      throw exception;
+    }
+    ResponseEntity<ProblemDetail> response = DATABASE_BUSY.response(busy.getMessage());
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(response.getBody());
+  }
+
+  /**
+   * Verifica se a exceção foi causada pela violação da restrição informada,
+   * pelo nome que o Hibernate extrai da mensagem do banco.
+   *
+   * @param exception  A exceção lançada.
+   * @param constraint O nome da restrição ou do índice único.
+   * @return true se alguma causa da exceção for a violação da restrição.
+   */
+  private static boolean violates(DataIntegrityViolationException exception, String constraint) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+          && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Procura, entre as causas da exceção, uma do tipo informado.
+   *
+   * @param exception A exceção lançada.
+   * @param type      O tipo da causa procurada.
+   * @return A primeira causa do tipo, ou null se não houver.
+   */
+  private static <T extends Throwable> T findCause(Throwable exception, Class<T> type) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (type.isInstance(cause)) {
+        return type.cast(cause);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Modelo de um tipo de erro: o status, o tipo e o título, comuns a todas as
+   * respostas desse erro.
+   * <p>
+   * O {@link ProblemDetail} não é compartilhado entre requisições porque o
+   * Spring MVC preenche nele o {@code instance} com o caminho de cada
+   * requisição.
+   * </p>
+   *
+   * @param status O status HTTP do erro.
+   * @param type   O URI que identifica o tipo do erro.
+   * @param title  O resumo do erro, igual em todas as ocorrências.
+   */
+  private record ProblemTemplate(HttpStatus status, URI type, String title) {
+
+    ProblemTemplate(HttpStatus status, String type, String title) {
+      this(status, URI.create("urn:totvs-app:problem:" + type), title);
+    }
+
+    ResponseEntity<ProblemDetail> response(String detail) {
+      ProblemDetail problem = ProblemDetail.forStatus(status);
+      problem.setType(type);
+      problem.setTitle(title);
+      problem.setDetail(detail);
+      return ResponseEntity.status(status).body(problem);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.example.totvsapp.infra;
+
+/**
+ * Calcula a impressão digital de uma instrução SQL: o texto sem os valores
+ * literais, de modo que execuções da mesma consulta com valores diferentes
+ * sejam agrupadas.
+ * <p>
+ * Literais de texto e números viram {@code ?}, sequências de parâmetros como
+ * {@code in (?,?,?)} viram {@code in (?...)}, comentários são removidos e os
+ * espaços em branco, normalizados. Identificadores, inclusive os aliases do
+ * Hibernate como {@code c1_0}, e identificadores entre aspas duplas são
+ * mantidos. A análise é feita em uma única passagem pelo texto, sem expressões
+ * regulares, pois roda a cada instrução executada.
+ * </p>
+ */
+final class SqlFingerprint {
+
+  private SqlFingerprint() {
+  }
+
+  /**
+   * Calcula a impressão digital de uma instrução SQL.
+   *
+   * @param sql A instrução SQL.
+   * @return A instrução sem literais e com os espaços normalizados.
+   */
+  static String of(String sql) {
+    int length = sql.length();
+    StringBuilder fingerprint = new StringBuilder(length);
+    boolean pendingSpace = false;
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+
+      if (Character.isWhitespace(c)) {
+        pendingSpace = fingerprint.length() > 0;
+        i++;
+        continue;
+      }
+      if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+        pendingSpace = fingerprint.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        fingerprint.append(' ');
+        pendingSpace = false;
+      }
+
+      if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+        appendParameter(fingerprint);
+      } else if (c == '"') {
+        int end = skipQuoted(sql, i, '"');
+        fingerprint.append(sql, i, end);
+        i = end;
+      } else if (c == '?') {
+        appendParameter(fingerprint);
+        i++;
+      } else if (isDigit(c) && !endsWithIdentifier(fingerprint)) {
+        i++;
+        while (i < length && (isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+        appendParameter(fingerprint);
+      } else {
+        fingerprint.append(c);
+        i++;
+      }
+    }
+    return fingerprint.toString();
+  }
+
+  /**
+   * Acrescenta um parâmetro, ou, se a impressão já termina com uma sequência
+   * de parâmetros separados por vírgula, a resume como {@code ?...}.
+   */
+  private static void appendParameter(StringBuilder fingerprint) {
+    int end = fingerprint.length();
+    if (end > 0 && fingerprint.charAt(end - 1) == ' ') {
+      end--;
+    }
+    if (end > 0 && fingerprint.charAt(end - 1) == ',') {
+      int previous = end - 1;
+      if (previous > 0 && fingerprint.charAt(previous - 1) == ' ') {
+        previous--;
+      }
+      if (previous >= 4 && fingerprint.lastIndexOf("?...", previous) == previous - 4) {
+        fingerprint.setLength(previous);
+        return;
+      }
+      if (previous >= 1 && fingerprint.charAt(previous - 1) == '?') {
+        fingerprint.setLength(previous);
+        fingerprint.append("...");
+        return;
+      }
+    }
+    fingerprint.append('?');
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i) == quote) {
+        // Aspas duplicadas representam a própria aspa dentro do literal
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i += 2;
+          continue;
+        }
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean endsWithIdentifier(StringBuilder fingerprint) {
+    if (fingerprint.length() == 0) {
+      return false;
+    }
+    char last = fingerprint.charAt(fingerprint.length() - 1);
+    return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
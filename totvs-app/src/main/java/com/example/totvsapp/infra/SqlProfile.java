@@ -0,0 +1,83 @@
+package com.example.totvsapp.infra;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * As instruções SQL executadas durante uma requisição HTTP, agrupadas pela
+ * impressão digital ({@link SqlFingerprint}), com a quantidade de execuções e
+ * o tempo gasto no banco de cada grupo.
+ * <p>
+ * Um lote JDBC conta como uma execução, pois é uma única ida ao banco. O
+ * perfil pertence à thread da requisição e não é sincronizado.
+ * </p>
+ */
+public final class SqlProfile {
+
+  private final Map<String, Statement> statements = new LinkedHashMap<>();
+
+  private int count;
+
+  private long nanos;
+
+  void record(String fingerprint, long elapsedNanos) {
+    count++;
+    nanos += elapsedNanos;
+    Statement statement = statements.computeIfAbsent(fingerprint, key -> new Statement());
+    statement.count++;
+    statement.nanos += elapsedNanos;
+  }
+
+  /**
+   * @return A quantidade de instruções executadas na requisição.
+   */
+  public int count() {
+    return count;
+  }
+
+  /**
+   * @return O tempo total gasto no banco pela requisição, em nanossegundos.
+   */
+  public long nanos() {
+    return nanos;
+  }
+
+  /**
+   * @return As instruções executadas, indexadas pela impressão digital, na
+   *         ordem da primeira execução.
+   */
+  public Map<String, Statement> statements() {
+    return Collections.unmodifiableMap(statements);
+  }
+
+  /**
+   * Formata o perfil como valor do cabeçalho {@code Server-Timing}, exibido
+   * pelas ferramentas de desenvolvimento dos navegadores, por exemplo
+   * {@code db;desc="3 queries";dur=1.234}, com a duração em milissegundos.
+   *
+   * @return O valor do cabeçalho.
+   */
+  public String serverTiming() {
+    return String.format(Locale.ROOT, "db;desc=\"%d queries\";dur=%.3f", count, nanos / 1_000_000.0);
+  }
+
+  /**
+   * A quantidade de execuções e o tempo gasto de uma mesma instrução.
+   */
+  public static final class Statement {
+
+    private int count;
+
+    private long nanos;
+
+    public int count() {
+      return count;
+    }
+
+    public long nanos() {
+      return nanos;
+    }
+  }
+}
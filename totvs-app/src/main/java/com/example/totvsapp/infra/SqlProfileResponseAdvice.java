@@ -0,0 +1,52 @@
+package com.example.totvsapp.infra;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Grava o cabeçalho {@code Server-Timing} com o {@link SqlProfile} da
+ * requisição antes da escrita do corpo da resposta, quando
+ * {@code totvs.sql-profiling.response-header=true}.
+ * <p>
+ * Os conversores de mensagem enviam a resposta ao terminar de escrever o
+ * corpo; depois disso o {@link SqlProfilingFilter} não consegue mais
+ * acrescentar cabeçalhos. Neste ponto, o controlador já terminou e todas as
+ * instruções da requisição já foram executadas.
+ * </p>
+ */
+@ControllerAdvice
+public class SqlProfileResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  private final SqlProfiler sqlProfiler;
+
+  private final boolean responseHeader;
+
+  public SqlProfileResponseAdvice(
+      SqlProfiler sqlProfiler,
+      @Value("${totvs.sql-profiling.response-header:false}") boolean responseHeader) {
+    this.sqlProfiler = sqlProfiler;
+    this.responseHeader = responseHeader;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return responseHeader;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+      ServerHttpResponse response) {
+    SqlProfile profile = sqlProfiler.current();
+    if (profile != null) {
+      response.getHeaders().set(SqlProfilingFilter.SERVER_TIMING, profile.serverTiming());
+    }
+    return body;
+  }
+}
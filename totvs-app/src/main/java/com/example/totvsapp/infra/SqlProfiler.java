@@ -0,0 +1,176 @@
+package com.example.totvsapp.infra;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Recebe, do proxy do {@code DataSource} configurado em
+ * {@link SqlProfilingConfig}, cada instrução SQL executada, com o seu tempo de
+ * execução.
+ * <p>
+ * Durante uma requisição HTTP, a instrução é somada ao {@link SqlProfile} da
+ * requisição, aberto pelo {@link SqlProfilingFilter} na thread que a atende.
+ * Instruções de outras threads, como a escrita assíncrona da exportação e as
+ * tarefas de inicialização, não entram em nenhum perfil.
+ * </p>
+ * <p>
+ * Instruções mais lentas que {@code totvs.sql-profiling.slow-query-threshold}
+ * vão para o log de consultas lentas, com os parâmetros. O log é escrito por
+ * uma thread virtual própria a partir de uma fila limitada a
+ * {@code totvs.sql-profiling.slow-query-queue-size} entradas, de modo que a
+ * requisição apenas copia os parâmetros e nunca espera pela escrita; se a fila
+ * estiver cheia, a entrada é descartada e contada na métrica
+ * {@code db.queries.slow.dropped}. Diferente do {@code spring.jpa.show-sql},
+ * nada é escrito para as instruções rápidas.
+ * </p>
+ */
+@Component
+public class SqlProfiler implements QueryExecutionListener {
+
+  private static final Logger SLOW_QUERY_LOG = LoggerFactory.getLogger(SqlProfiler.class);
+
+  private final ThreadLocal<SqlProfile> current = new ThreadLocal<>();
+
+  private final long slowQueryThresholdNanos;
+
+  private final BlockingQueue<SlowQuery> slowQueries;
+
+  private final Counter slowQueryCount;
+
+  private final Counter droppedSlowQueries;
+
+  private final Thread slowQueryWriter;
+
+  public SqlProfiler(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.sql-profiling.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+      @Value("${totvs.sql-profiling.slow-query-queue-size:1000}") int slowQueryQueueSize) {
+    this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    this.slowQueries = new ArrayBlockingQueue<>(slowQueryQueueSize);
+    this.slowQueryCount = Counter.builder("db.queries.slow")
+        .description("Instruções SQL mais lentas que o limite do log de consultas lentas")
+        .register(meterRegistry);
+    this.droppedSlowQueries = Counter.builder("db.queries.slow.dropped")
+        .description("Consultas lentas descartadas por falta de espaço na fila do log")
+        .register(meterRegistry);
+    this.slowQueryWriter = Thread.ofVirtual().name("slow-query-log").start(this::writeSlowQueries);
+  }
+
+  /**
+   * Abre o perfil da requisição atendida pela thread atual.
+   *
+   * @return O perfil, que recebe as instruções até {@link #stop()}.
+   */
+  SqlProfile start() {
+    SqlProfile profile = new SqlProfile();
+    current.set(profile);
+    return profile;
+  }
+
+  /**
+   * Encerra o perfil da thread atual.
+   */
+  void stop() {
+    current.remove();
+  }
+
+  /**
+   * @return O perfil da requisição atendida pela thread atual, ou null se não
+   *         houver.
+   */
+  SqlProfile current() {
+    return current.get();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    // O tempo é medido pelo próprio proxy
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (queryInfoList.isEmpty()) {
+      return;
+    }
+    // Um lote com instruções diferentes é agrupado pela primeira delas
+    String sql = queryInfoList.get(0).getQuery();
+    long elapsedNanos = execInfo.getElapsedTime();
+
+    SqlProfile profile = current.get();
+    if (profile != null) {
+      profile.record(SqlFingerprint.of(sql), elapsedNanos);
+    }
+    if (elapsedNanos > slowQueryThresholdNanos) {
+      slowQueryCount.increment();
+      SlowQuery slowQuery = new SlowQuery(sql, elapsedNanos, execInfo.isBatch() ? execInfo.getBatchSize() : 0,
+          parameters(queryInfoList.get(0)));
+      if (!slowQueries.offer(slowQuery)) {
+        droppedSlowQueries.increment();
+      }
+    }
+  }
+
+  /**
+   * Copia os valores dos parâmetros, um vetor por conjunto de parâmetros do
+   * lote, na ordem em que foram informados ao driver.
+   */
+  private static Object[][] parameters(QueryInfo queryInfo) {
+    List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+    Object[][] parameters = new Object[parametersList.size()][];
+    for (int i = 0; i < parameters.length; i++) {
+      List<ParameterSetOperation> operations = parametersList.get(i);
+      parameters[i] = new Object[operations.size()];
+      for (int j = 0; j < operations.size(); j++) {
+        ParameterSetOperation operation = operations.get(j);
+        Object[] args = operation.getArgs();
+        parameters[i][j] = ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2
+            ? null
+            : args[1];
+      }
+    }
+    return parameters;
+  }
+
+  private void writeSlowQueries() {
+    try {
+      while (true) {
+        SlowQuery slowQuery = slowQueries.take();
+        SLOW_QUERY_LOG.warn("Consulta lenta ({} ms{}): {} parâmetros {}",
+            TimeUnit.NANOSECONDS.toMillis(slowQuery.elapsedNanos()),
+            slowQuery.batchSize() > 0 ? ", lote de " + slowQuery.batchSize() : "",
+            slowQuery.sql(),
+            Arrays.deepToString(slowQuery.parameters()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Encerra a escrita do log de consultas lentas no encerramento da aplicação.
+   */
+  @PreDestroy
+  public void close() {
+    slowQueryWriter.interrupt();
+  }
+
+  private record SlowQuery(String sql, long elapsedNanos, int batchSize, Object[][] parameters) {
+  }
+}
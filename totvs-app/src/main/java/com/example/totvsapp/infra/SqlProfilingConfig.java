@@ -0,0 +1,50 @@
+package com.example.totvsapp.infra;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Envolve o {@code DataSource} em um proxy do datasource-proxy que informa
+ * cada instrução SQL executada, com o tempo medido em nanossegundos, ao
+ * {@link SqlProfiler}.
+ * <p>
+ * O proxy fica entre o Hikari e quem usa as conexões (Hibernate, Flyway e
+ * {@code JdbcTemplate}), de modo que todas as instruções passam por ele. Com
+ * {@code totvs.sql-profiling.enabled=false} o {@code DataSource} não é
+ * envolvido.
+ * </p>
+ */
+@Configuration
+public class SqlProfilingConfig {
+
+  @Bean
+  public static BeanPostProcessor sqlProfilingDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler,
+      @Value("${totvs.sql-profiling.enabled:true}") boolean enabled) {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+          return bean;
+        }
+        ProxyDataSource proxy = ProxyDataSourceBuilder.create(beanName, dataSource)
+            .listener(sqlProfiler.getObject())
+            .build();
+        proxy.setProxyConfig(ProxyConfig.Builder.from(proxy.getProxyConfig())
+            .stopwatchFactory(new NanoTimeStopwatchFactory())
+            .build());
+        return proxy;
+      }
+    };
+  }
+}
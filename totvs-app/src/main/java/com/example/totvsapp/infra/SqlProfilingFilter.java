@@ -0,0 +1,127 @@
+package com.example.totvsapp.infra;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filtro que abre um {@link SqlProfile} para cada requisição HTTP e, ao
+ * final, registra a quantidade de instruções SQL e o tempo gasto no banco.
+ *
+ * <p>
+ * Os totais de cada requisição são publicados nas métricas
+ * {@code db.request.queries} e {@code db.request.time}. Com o log deste filtro
+ * no nível {@code DEBUG}, cada requisição que usou o banco registra as suas
+ * instruções agrupadas pela impressão digital, com a quantidade de execuções e
+ * o tempo de cada uma, o que torna visível, por exemplo, uma consulta repetida
+ * por item.
+ * </p>
+ *
+ * <p>
+ * Com {@code totvs.sql-profiling.response-header=true}, habilitado fora de
+ * produção, a resposta traz o cabeçalho {@code Server-Timing} com a
+ * quantidade de instruções e o tempo no banco. Ele é gravado pelo
+ * {@link SqlProfileResponseAdvice} antes da escrita do corpo, quando os
+ * cabeçalhos ainda podem ser alterados, ou por este filtro nas respostas sem
+ * corpo. Respostas transmitidas em partes, como a exportação e o feed de
+ * alterações, não o recebem.
+ * </p>
+ */
+@Component
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+  static final String SERVER_TIMING = "Server-Timing";
+
+  private static final Logger log = LoggerFactory.getLogger(SqlProfilingFilter.class);
+
+  private final SqlProfiler sqlProfiler;
+
+  private final boolean enabled;
+
+  private final boolean responseHeader;
+
+  private final DistributionSummary queries;
+
+  private final Timer time;
+
+  public SqlProfilingFilter(
+      SqlProfiler sqlProfiler,
+      MeterRegistry meterRegistry,
+      @Value("${totvs.sql-profiling.enabled:true}") boolean enabled,
+      @Value("${totvs.sql-profiling.response-header:false}") boolean responseHeader) {
+    this.sqlProfiler = sqlProfiler;
+    this.enabled = enabled;
+    this.responseHeader = responseHeader;
+    this.queries = DistributionSummary.builder("db.request.queries")
+        .description("Instruções SQL executadas por requisição HTTP")
+        .register(meterRegistry);
+    this.time = Timer.builder("db.request.time")
+        .description("Tempo gasto no banco por requisição HTTP")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled;
+  }
+
+  /**
+   * Abre o perfil SQL da requisição, processa a requisição e registra o
+   * perfil ao final.
+   *
+   * @param request     A solicitação HTTP recebida.
+   * @param response    A resposta HTTP que será enviada.
+   * @param filterChain O filtro da cadeia para continuar o processamento da
+   *                    solicitação.
+   *
+   * @throws ServletException Se ocorrer uma exceção durante o processamento do
+   *                          filtro.
+   * @throws IOException      Se ocorrer uma exceção de entrada/saída durante o
+   *                          processamento do filtro.
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    SqlProfile profile = sqlProfiler.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      sqlProfiler.stop();
+      if (responseHeader && !response.isCommitted()) {
+        response.setHeader(SERVER_TIMING, profile.serverTiming());
+      }
+      queries.record(profile.count());
+      time.record(profile.nanos(), TimeUnit.NANOSECONDS);
+      if (log.isDebugEnabled() && profile.count() > 0) {
+        log.debug(summary(request, profile));
+      }
+    }
+  }
+
+  private static String summary(HttpServletRequest request, SqlProfile profile) {
+    StringBuilder summary = new StringBuilder()
+        .append(request.getMethod()).append(' ').append(request.getRequestURI())
+        .append(": ").append(profile.count()).append(" instruções em ")
+        .append(TimeUnit.NANOSECONDS.toMicros(profile.nanos())).append(" µs");
+    for (Map.Entry<String, SqlProfile.Statement> entry : profile.statements().entrySet()) {
+      summary.append("\n  ").append(entry.getValue().count()).append("x ")
+          .append(TimeUnit.NANOSECONDS.toMicros(entry.getValue().nanos())).append(" µs ")
+          .append(entry.getKey());
+    }
+    return summary.toString();
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.totvsapp.infra;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatVirtualThreadsWebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Interrompe a subida quando {@code spring.threads.virtual.enabled} contradiz
+ * o modo de threads gravado no build AOT.
+ * <p>
+ * Com {@code spring.aot.enabled=true}, a condição que troca as threads do
+ * Tomcat por threads virtuais é avaliada no build (perfil
+ * {@code fast-startup}, com {@code -Daot.virtual-threads}), mas o
+ * {@link DatabasePermitConfig} lê a propriedade na execução. Sem esta
+ * verificação, uma imagem gerada para threads de plataforma subiria com
+ * {@code VIRTUAL_THREADS_ENABLED=true} atendendo em threads de plataforma e
+ * limitando as conexões como se fossem virtuais, e vice-versa. O modo do build
+ * é reconhecido pela presença do
+ * {@link TomcatVirtualThreadsWebServerFactoryCustomizer}. Sem AOT, a condição
+ * e a propriedade são avaliadas juntas e nada é verificado.
+ * </p>
+ */
+@Configuration
+public class ThreadingModeConfig {
+
+  @Bean
+  public SmartInitializingSingleton threadingModeCheck(
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+      ObjectProvider<TomcatVirtualThreadsWebServerFactoryCustomizer> virtualThreadsCustomizer) {
+    return () -> {
+      if (AotDetector.useGeneratedArtifacts()) {
+        verify(virtualThreads, virtualThreadsCustomizer.getIfAvailable() != null);
+      }
+    };
+  }
+
+  /**
+   * Verifica se o modo de threads configurado é o mesmo gravado no build.
+   *
+   * @param configured O valor de {@code spring.threads.virtual.enabled} na
+   *                   execução.
+   * @param built      Se o build AOT foi gerado para threads virtuais.
+   * @throws IllegalStateException Se os modos forem diferentes.
+   */
+  static void verify(boolean configured, boolean built) {
+    if (configured != built) {
+      throw new IllegalStateException("spring.threads.virtual.enabled=" + configured
+          + " contradiz o build AOT, gerado com -Daot.virtual-threads=" + built
+          + "; gere a imagem novamente com o modo desejado ou ajuste VIRTUAL_THREADS_ENABLED");
+    }
+  }
+}
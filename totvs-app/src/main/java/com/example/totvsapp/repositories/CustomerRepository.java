@@ -1,11 +1,192 @@
 package com.example.totvsapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.totvsapp.domain.Customers.CustomerPhoneRow;
+import com.example.totvsapp.domain.Customers.CustomerSearchRow;
+import com.example.totvsapp.domain.Customers.CustomerVersionRow;
 import com.example.totvsapp.domain.Customers.Customers;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customers, Long> {
 
+  /**
+   * Lista todos os clientes e seus telefones como linhas achatadas, produzidas
+   * por expressão de construtor em uma única consulta. Nenhuma entidade é
+   * carregada no contexto de persistência.
+   *
+   * @return As linhas de cliente e telefone, ordenadas pelo ID do cliente e do
+   *         telefone.
+   */
+  @Transactional(readOnly = true)
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerPhoneRow(c.id, c.name, c.address, c.district, c.version, p.id, p.number) "
+      + "from customer c left join c.phones p order by c.id, p.id")
+  List<CustomerPhoneRow> findAllRows();
+
+  /**
+   * Encontra os IDs dos clientes seguintes a um ID, em ordem crescente
+   * (paginação por chave). A consulta percorre o índice da chave primária a
+   * partir do ID informado, sem OFFSET, de modo que o custo de uma página não
+   * depende de quantas páginas a antecedem.
+   *
+   * @param after O ID a partir do qual buscar, exclusivo.
+   * @param limit A quantidade máxima de IDs.
+   * @return Os IDs encontrados, em ordem crescente.
+   */
+  @Query("select c.id from customer c where c.id > :after order by c.id")
+  List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+  /**
+   * Lista os clientes com os IDs informados e seus telefones como linhas
+   * achatadas, em uma única consulta e sem carregar entidades.
+   *
+   * @param ids Os IDs dos clientes.
+   * @return As linhas de cliente e telefone, ordenadas pelo ID do cliente e do
+   *         telefone.
+   */
+  @Transactional(readOnly = true)
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerPhoneRow(c.id, c.name, c.address, c.district, c.version, p.id, p.number) "
+      + "from customer c left join c.phones p where c.id in :ids order by c.id, p.id")
+  List<CustomerPhoneRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Lista um cliente e seus telefones como linhas achatadas, sem carregar
+   * entidades.
+   *
+   * @param id O ID do cliente.
+   * @return As linhas do cliente, uma por telefone, ou uma lista vazia se o
+   *         cliente não existir.
+   */
+  @Transactional(readOnly = true)
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerPhoneRow(c.id, c.name, c.address, c.district, c.version, p.id, p.number) "
+      + "from customer c left join c.phones p where c.id = :id order by p.id")
+  List<CustomerPhoneRow> findRowsById(@Param("id") Long id);
+
+  /**
+   * Encontra um cliente pelo ID já com seus telefones carregados, em uma única
+   * consulta.
+   *
+   * @param id O ID do cliente.
+   * @return O cliente encontrado, ou Optional vazio se não existir.
+   */
+  @EntityGraph(attributePaths = "phones")
+  Optional<Customers> findWithPhonesById(Long id);
+
+  /**
+   * Exclui os clientes com os IDs informados em uma única instrução. Os
+   * telefones são excluídos pelo banco, pela chave estrangeira com
+   * {@code ON DELETE CASCADE}.
+   * <p>
+   * A exclusão não passa pelo contexto de persistência: clientes já carregados
+   * na transação não são atualizados.
+   * </p>
+   *
+   * @param ids Os IDs dos clientes.
+   * @return A quantidade de clientes excluídos.
+   */
+  @Modifying
+  @Query("delete from customer c where c.id in :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Percorre o ID e a versão de todos os clientes, em ordem de ID, como um
+   * cursor do banco. A consulta é respondida pelo índice da chave primária e
+   * não lê os telefones nem os demais campos dos clientes.
+   * <p>
+   * Deve ser consumido dentro de uma transação e fechado ao final.
+   * </p>
+   *
+   * @return Um Stream com o ID e a versão de cada cliente.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerVersionRow(c.id, c.version) from customer c order by c.id")
+  Stream<CustomerVersionRow> streamAllVersions();
+
+  /**
+   * Percorre todos os clientes e seus telefones como um cursor do banco.
+   * As linhas chegam ordenadas pelo ID do cliente, de forma que os telefones de
+   * um mesmo cliente são consecutivos. O tamanho de fetch limita quantas linhas
+   * o driver JDBC mantém em memória por vez.
+   * <p>
+   * Deve ser consumido dentro de uma transação e fechado ao final.
+   * </p>
+   *
+   * @return Um Stream de linhas de cliente e telefone.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerPhoneRow(c.id, c.name, c.address, c.district, c.version, p.id, p.number) "
+      + "from customer c left join c.phones p order by c.id, p.id")
+  Stream<CustomerPhoneRow> streamAllWithPhones();
+
+  /**
+   * Percorre o ID, o nome e o bairro de todos os clientes como um cursor do
+   * banco, para a carga do índice de busca em memória.
+   * <p>
+   * Deve ser consumido dentro de uma transação e fechado ao final.
+   * </p>
+   *
+   * @return Um Stream com os campos de busca de cada cliente.
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select new com.example.totvsapp.domain.Customers.CustomerSearchRow(c.id, c.name, c.district) from customer c")
+  Stream<CustomerSearchRow> streamAllForSearch();
+
+  /**
+   * Busca os IDs dos clientes cujo nome começa com o texto informado, tem uma
+   * palavra que começa com ele ou é parecido com ele por similaridade de
+   * trigramas (extensão {@code pg_trgm} do PostgreSQL), opcionalmente
+   * filtrando pelo início do bairro.
+   * <p>
+   * Compara as colunas geradas {@code search_name} e {@code search_district},
+   * normalizadas como em {@code CustomerSearchIndex}, de modo que os
+   * resultados e a ordem são os mesmos do índice em memória: nomes que começam
+   * com o texto, depois nomes com uma palavra que começa com ele, depois a
+   * similaridade, depois o ID. Os {@code LIKE} e o operador {@code %} usam os
+   * índices GIN {@code gin_trgm_ops} das duas colunas.
+   * </p>
+   *
+   * @param query          O texto buscado, já normalizado.
+   * @param districtPrefix O início do bairro, já normalizado, ou vazio para
+   *                       qualquer bairro.
+   * @param offset         A quantidade de resultados a pular.
+   * @param limit          A quantidade máxima de resultados.
+   * @return Os IDs encontrados, em ordem de relevância.
+   */
+  @Query(value = """
+      select c.id from customer c
+      where (c.search_name like :query || '%' or c.search_name like '% ' || :query || '%' or c.search_name % :query)
+        and c.search_district like :districtPrefix || '%'
+      order by case when c.search_name like :query || '%' then 2
+                    when c.search_name like '% ' || :query || '%' then 1
+                    else 0 end desc,
+               similarity(c.search_name, :query) desc, c.id
+      offset :offset limit :limit
+      """, nativeQuery = true)
+  List<Long> searchIds(@Param("query") String query, @Param("districtPrefix") String districtPrefix,
+      @Param("offset") int offset, @Param("limit") int limit);
 }
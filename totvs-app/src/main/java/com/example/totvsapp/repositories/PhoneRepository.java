@@ -1,12 +1,22 @@
 package com.example.totvsapp.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.totvsapp.domain.Phones.Phones;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PhoneRepository extends JpaRepository<Phones, Long> {
 
@@ -19,6 +29,18 @@ public interface PhoneRepository extends JpaRepository<Phones, Long> {
    */
   Phones findByNumber(String number);
 
+  /**
+   * Obtém o ID do cliente dono de um número de telefone, sem carregar
+   * entidades. A consulta usa o índice único {@code idx_phones_number}.
+   *
+   * @param number O número de telefone, na forma canônica.
+   * @return O ID do cliente, ou Optional vazio se o número não estiver
+   *         cadastrado.
+   */
+  @Transactional(readOnly = true)
+  @Query("select p.customers.id from phones p where p.number = :number")
+  Optional<Long> findCustomerIdByNumber(@Param("number") String number);
+
   /**
    * Encontra todos os objetos Phones associados a um cliente pelo ID do cliente.
    *
@@ -28,4 +50,27 @@ public interface PhoneRepository extends JpaRepository<Phones, Long> {
    *         se nenhum for encontrado.
    */
   List<Phones> findByCustomersId(Long id);
+
+  /**
+   * Encontra, entre os números informados, aqueles que já estão cadastrados.
+   * Permite validar um conjunto de telefones com uma única consulta
+   * {@code number IN (...)}.
+   *
+   * @param numbers Os números de telefone a serem pesquisados.
+   * @return Os números que já existem, ou uma lista vazia se nenhum existir.
+   */
+  @Query("select p.number from phones p where p.number in :numbers")
+  List<String> findNumbersIn(@Param("numbers") Collection<String> numbers);
+
+  /**
+   * Percorre os valores numéricos de todos os telefones cadastrados como um
+   * cursor do banco, lidos diretamente da coluna {@code bigint}, sem passar
+   * pela forma em texto. Deve ser consumido dentro de uma transação e fechado
+   * ao final.
+   *
+   * @return Um Stream com o valor numérico de cada telefone.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query(value = "select number from phones", nativeQuery = true)
+  Stream<Long> streamAllNumberValues();
 }
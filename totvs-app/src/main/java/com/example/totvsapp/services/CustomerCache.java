@@ -0,0 +1,100 @@
+package com.example.totvsapp.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache de leitura dos clientes consultados pelo ID.
+ * <p>
+ * Guarda apenas {@link CustomerView}, nunca entidades gerenciadas. O tamanho
+ * máximo e o tempo de expiração são configurados pelas propriedades
+ * {@code totvs.cache.customers.*}; a política de remoção é a W-TinyLFU do
+ * Caffeine.
+ * </p>
+ * <p>
+ * As métricas {@code cache.*} (acertos, falhas, remoções e tempo de carga) são
+ * publicadas com a tag {@code cache=customers}, além de
+ * {@code cache.hit.ratio}.
+ * </p>
+ */
+@Component
+public class CustomerCache {
+
+  private final Cache<Long, CustomerView> cache;
+
+  public CustomerCache(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.cache.customers.maximum-size:10000}") long maximumSize,
+      @Value("${totvs.cache.customers.expire-after-write:5m}") Duration expireAfterWrite) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers");
+    Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+        .description("Proporção de consultas atendidas pelo cache")
+        .tag("cache", "customers")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Obtém um cliente do cache, carregando-o com a função informada quando não
+   * estiver presente. Exceções lançadas pela função são propagadas e nada é
+   * guardado.
+   *
+   * @param id     O ID do cliente.
+   * @param loader A função que carrega o cliente do banco.
+   * @return O cliente.
+   */
+  public CustomerView get(Long id, Function<Long, CustomerView> loader) {
+    return cache.get(id, loader);
+  }
+
+  /**
+   * Remove um cliente do cache imediatamente e novamente após o commit da
+   * transação atual. A segunda remoção descarta uma versão antiga que outra
+   * requisição possa ter carregado enquanto a transação ainda não estava
+   * confirmada.
+   *
+   * @param id O ID do cliente alterado ou excluído.
+   */
+  public void invalidate(Long id) {
+    invalidateAll(List.of(id));
+  }
+
+  /**
+   * Remove vários clientes do cache imediatamente e novamente após o commit
+   * da transação atual, como {@link #invalidate(Long)}.
+   *
+   * @param ids Os IDs dos clientes alterados ou excluídos.
+   */
+  public void invalidateAll(Collection<Long> ids) {
+    cache.invalidateAll(ids);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cache.invalidateAll(ids);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,358 @@
+package com.example.totvsapp.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.totvsapp.domain.Customers.CustomerChange;
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.domain.Customers.Customers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feed das alterações de clientes, entregue aos assinantes como Server-Sent
+ * Events.
+ * <p>
+ * Cada inserção, alteração ou exclusão vira um {@link CustomerChange},
+ * publicado somente após o commit da transação. Os últimos
+ * {@code totvs.changes.buffer-size} eventos ficam em um buffer circular com
+ * números de sequência, de modo que um assinante que reconecta com o cabeçalho
+ * {@code Last-Event-ID} recebe apenas os eventos que perdeu. Se os eventos
+ * perdidos já saíram do buffer, ou se o ID é de uma execução anterior da
+ * aplicação, o assinante recebe um evento {@code reset} e deve reler a lista
+ * de clientes.
+ * </p>
+ * <p>
+ * Quem publica nunca espera por um assinante: cada assinante tem uma fila
+ * limitada a {@code totvs.changes.subscriber-queue-size} eventos, esvaziada
+ * por uma thread virtual própria. Um assinante cuja fila enche é desconectado
+ * e pode retomar pelo {@code Last-Event-ID}. Na falta de eventos, um
+ * comentário é enviado a cada {@code totvs.changes.heartbeat} para manter a
+ * conexão aberta e detectar clientes desconectados. A conexão dura até
+ * {@code totvs.changes.timeout}, ou indefinidamente com {@code 0}, sem herdar o
+ * {@code spring.mvc.async.request-timeout} das demais respostas assíncronas.
+ * </p>
+ * <p>
+ * O feed é local a cada instância da aplicação: o buffer, as sequências e os
+ * assinantes ficam em memória, e só são publicadas as escritas atendidas pela
+ * própria instância. Com mais de uma instância atrás de um balanceador, um
+ * assinante não recebe as alterações feitas pelas outras, e um
+ * {@code Last-Event-ID} de outra instância é tratado como desconhecido e
+ * respondido com {@code reset}. Para um feed completo nesse cenário, as
+ * alterações precisam passar por um canal compartilhado entre as instâncias.
+ * </p>
+ */
+@Component
+public class CustomerChangeFeed {
+
+  /**
+   * Nome do evento que indica ao assinante que os eventos perdidos não estão
+   * mais disponíveis.
+   */
+  public static final String RESET_EVENT = "reset";
+
+  private final CustomerChange[] buffer;
+
+  private final List<Subscriber> subscribers = new ArrayList<>();
+
+  private final int subscriberQueueSize;
+
+  private final long heartbeatMillis;
+
+  private final long timeoutMillis;
+
+  private final Counter droppedSubscribers;
+
+  /**
+   * O número de sequência do primeiro evento. É o instante de inicialização,
+   * em milissegundos multiplicados por mil, para que IDs de execuções
+   * anteriores da aplicação sejam reconhecidos como antigos.
+   */
+  private final long firstSequence = System.currentTimeMillis() * 1000;
+
+  private long nextSequence = firstSequence;
+
+  public CustomerChangeFeed(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.changes.buffer-size:1024}") int bufferSize,
+      @Value("${totvs.changes.subscriber-queue-size:256}") int subscriberQueueSize,
+      @Value("${totvs.changes.heartbeat:15s}") Duration heartbeat,
+      @Value("${totvs.changes.timeout:0}") Duration timeout) {
+    this.buffer = new CustomerChange[bufferSize];
+    this.subscriberQueueSize = subscriberQueueSize;
+    this.heartbeatMillis = heartbeat.toMillis();
+    this.timeoutMillis = timeout.toMillis();
+
+    Gauge.builder("customers.changes.subscribers", this, CustomerChangeFeed::subscriberCount)
+        .description("Assinantes conectados ao feed de alterações de clientes")
+        .register(meterRegistry);
+    this.droppedSubscribers = Counter.builder("customers.changes.dropped")
+        .description("Assinantes desconectados por não acompanharem o feed de alterações")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Publica a inserção ou a alteração de um cliente após o commit da transação
+   * atual. Se a transação for desfeita, nada é publicado; fora de uma
+   * transação, a alteração é publicada imediatamente.
+   * <p>
+   * A representação do cliente é montada somente após o commit, quando a
+   * versão já foi incrementada.
+   * </p>
+   *
+   * @param type     O tipo da alteração: {@code INSERTED} ou {@code UPDATED}.
+   * @param customer O cliente inserido ou alterado.
+   */
+  public void publishAfterCommit(CustomerChange.Type type, Customers customer) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publish(type, customer);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publish(type, customer);
+      }
+    });
+  }
+
+  /**
+   * Publica a exclusão de clientes após o commit da transação atual, um evento
+   * por cliente, ou imediatamente fora de uma transação.
+   *
+   * @param customerIds Os IDs dos clientes excluídos.
+   */
+  public void publishDeletedAfterCommit(Collection<Long> customerIds) {
+    if (customerIds.isEmpty()) {
+      return;
+    }
+    List<Long> deleted = List.copyOf(customerIds);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      publishDeleted(deleted);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        publishDeleted(deleted);
+      }
+    });
+  }
+
+  /**
+   * Obtém os eventos publicados depois do número de sequência informado.
+   *
+   * @param sequence O número de sequência do último evento recebido.
+   * @return Os eventos seguintes, em ordem, ou Optional vazio se algum deles
+   *         já saiu do buffer ou se o número não é desta execução.
+   */
+  public synchronized Optional<List<CustomerChange>> changesAfter(long sequence) {
+    long oldest = Math.max(nextSequence - buffer.length, firstSequence);
+    if (sequence < oldest - 1 || sequence >= nextSequence) {
+      return Optional.empty();
+    }
+
+    List<CustomerChange> changes = new ArrayList<>((int) (nextSequence - sequence - 1));
+    for (long s = sequence + 1; s < nextSequence; s++) {
+      changes.add(buffer[slot(s)]);
+    }
+    return Optional.of(changes);
+  }
+
+  /**
+   * Obtém o número de sequência do último evento publicado.
+   *
+   * @return O número de sequência, ou o anterior ao primeiro se nenhum evento
+   *         foi publicado.
+   */
+  public synchronized long latestSequence() {
+    return nextSequence - 1;
+  }
+
+  /**
+   * Registra um novo assinante do feed.
+   * <p>
+   * Sem {@code lastEventId}, o assinante recebe apenas os eventos publicados a
+   * partir de agora. Com ele, recebe antes os eventos perdidos, ou um evento
+   * {@value #RESET_EVENT} se eles não estiverem mais disponíveis.
+   * </p>
+   *
+   * @param lastEventId O ID do último evento recebido pelo assinante, ou null.
+   * @return O emissor SSE do assinante.
+   */
+  public SseEmitter subscribe(Long lastEventId) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    Subscriber subscriber;
+
+    // O histórico e o registro são feitos juntos para não perder nem repetir eventos
+    synchronized (this) {
+      Optional<List<CustomerChange>> backlog = lastEventId == null ? Optional.of(List.of())
+          : changesAfter(lastEventId);
+      subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberQueueSize),
+          backlog.orElse(null), latestSequence());
+      subscribers.add(subscriber);
+    }
+
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(() -> {
+      subscriber.close();
+      emitter.complete();
+    });
+    emitter.onError(error -> subscriber.close());
+    subscriber.thread = Thread.ofVirtual().name("customer-changes").start(() -> deliver(subscriber));
+    return emitter;
+  }
+
+  /**
+   * Desconecta todos os assinantes no encerramento da aplicação.
+   */
+  @PreDestroy
+  public synchronized void close() {
+    subscribers.forEach(Subscriber::close);
+    subscribers.clear();
+  }
+
+  private void publish(CustomerChange.Type type, Customers customer) {
+    append(type, customer.getId(), CustomerView.from(customer));
+  }
+
+  private synchronized void publishDeleted(List<Long> customerIds) {
+    for (Long customerId : customerIds) {
+      append(CustomerChange.Type.DELETED, customerId, null);
+    }
+  }
+
+  /**
+   * Grava um evento no buffer e o entrega às filas dos assinantes,
+   * desconectando os que estiverem com a fila cheia.
+   *
+   * @param type       O tipo da alteração.
+   * @param customerId O ID do cliente alterado.
+   * @param view       O cliente após a alteração, ou null se foi excluído.
+   */
+  private synchronized void append(CustomerChange.Type type, Long customerId, CustomerView view) {
+    CustomerChange change = new CustomerChange(nextSequence, type, customerId, view);
+    buffer[slot(nextSequence)] = change;
+    nextSequence++;
+
+    Iterator<Subscriber> iterator = subscribers.iterator();
+    while (iterator.hasNext()) {
+      Subscriber subscriber = iterator.next();
+      if (!subscriber.queue.offer(change)) {
+        iterator.remove();
+        subscriber.close();
+        droppedSubscribers.increment();
+      }
+    }
+  }
+
+  /**
+   * Envia ao assinante o histórico pendente e, em seguida, os eventos da sua
+   * fila, até que ele seja desconectado.
+   *
+   * @param subscriber O assinante.
+   */
+  private void deliver(Subscriber subscriber) {
+    SseEmitter emitter = subscriber.emitter;
+    try {
+      if (subscriber.backlog == null) {
+        emitter.send(SseEmitter.event().id(Long.toString(subscriber.resetSequence)).name(RESET_EVENT).data(""));
+      } else {
+        emitter.send(SseEmitter.event().comment("connected"));
+        for (CustomerChange change : subscriber.backlog) {
+          send(emitter, change);
+        }
+      }
+
+      while (!subscriber.closed) {
+        CustomerChange change = subscriber.queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+        if (change != null) {
+          send(emitter, change);
+        } else if (!subscriber.closed) {
+          emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+      }
+      emitter.complete();
+    } catch (InterruptedException e) {
+      emitter.complete();
+    } catch (IOException | IllegalStateException e) {
+      // O cliente desconectou ou a resposta já foi encerrada
+    } finally {
+      unsubscribe(subscriber);
+    }
+  }
+
+  private static void send(SseEmitter emitter, CustomerChange change) throws IOException {
+    emitter.send(SseEmitter.event().id(Long.toString(change.sequence())).data(change, MediaType.APPLICATION_JSON));
+  }
+
+  private synchronized void unsubscribe(Subscriber subscriber) {
+    subscribers.remove(subscriber);
+  }
+
+  private synchronized int subscriberCount() {
+    return subscribers.size();
+  }
+
+  private int slot(long sequence) {
+    return (int) Math.floorMod(sequence, (long) buffer.length);
+  }
+
+  /**
+   * Assinante do feed, com sua fila de eventos ainda não enviados.
+   */
+  private static final class Subscriber {
+
+    final SseEmitter emitter;
+
+    final BlockingQueue<CustomerChange> queue;
+
+    /**
+     * Os eventos perdidos a enviar antes da fila, ou null se o assinante deve
+     * receber um evento de reset.
+     */
+    final List<CustomerChange> backlog;
+
+    final long resetSequence;
+
+    volatile boolean closed;
+
+    volatile Thread thread;
+
+    Subscriber(SseEmitter emitter, BlockingQueue<CustomerChange> queue, List<CustomerChange> backlog,
+        long resetSequence) {
+      this.emitter = emitter;
+      this.queue = queue;
+      this.backlog = backlog;
+      this.resetSequence = resetSequence;
+    }
+
+    void close() {
+      closed = true;
+      Thread current = thread;
+      if (current != null && current != Thread.currentThread()) {
+        current.interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,533 @@
+package com.example.totvsapp.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.totvsapp.domain.Customers.CustomerSearchRow;
+import com.example.totvsapp.repositories.CustomerRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Índice invertido de trigramas dos nomes dos clientes, em memória, para a
+ * busca por nome e bairro sem acessar o banco.
+ * <p>
+ * Segue o modelo do {@code pg_trgm}: o texto é normalizado (minúsculas, sem
+ * acentos, apenas letras e dígitos) e cada palavra gera os trigramas de
+ * {@code "  palavra "}. Um nome corresponde à busca quando alguma palavra
+ * começa com o texto buscado ou quando a similaridade de trigramas (trigramas
+ * em comum divididos pelo total de trigramas distintos dos dois) atinge
+ * {@value #SIMILARITY_THRESHOLD}.
+ * </p>
+ * <p>
+ * Cada cliente ocupa uma posição de vetor e as listas de cada trigrama guardam
+ * essas posições. A busca soma, em uma tabela de contadores dimensionada pelas
+ * listas dos trigramas buscados, quantos trigramas da busca cada nome contém;
+ * o custo depende apenas dos nomes que têm algum trigrama em comum com a
+ * busca, e não do tamanho do índice. A contagem já dá a similaridade exata, e
+ * apenas os nomes que começam como a busca são comparados como texto. Somente
+ * os melhores resultados até a página pedida são mantidos.
+ * </p>
+ * <p>
+ * É habilitado pela propriedade {@code totvs.search.in-memory-index}. Ocupa
+ * cerca de meio kilobyte por cliente. É carregado na inicialização e
+ * atualizado após o commit de cada escrita feita por esta instância; os
+ * clientes encontrados são sempre lidos do banco, de modo que um cliente já
+ * excluído nunca aparece no resultado.
+ * </p>
+ */
+@Component
+public class CustomerSearchIndex {
+
+  static final double SIMILARITY_THRESHOLD = 0.3;
+
+  private static final Comparator<Hit> RELEVANCE = Comparator.comparingInt(Hit::rank).reversed()
+      .thenComparing(Comparator.comparingDouble(Hit::similarity).reversed())
+      .thenComparingLong(Hit::id);
+
+  @Autowired
+  private CustomerRepository customerRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final boolean enabled;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Store store = new Store();
+
+  /**
+   * Alterações recebidas durante a reconstrução do índice, reaplicadas sobre o
+   * novo conteúdo antes da troca; null fora da reconstrução.
+   */
+  private List<Consumer<Store>> pendingChanges;
+
+  private volatile boolean ready;
+
+  public CustomerSearchIndex(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.search.in-memory-index:false}") boolean enabled) {
+    this.enabled = enabled;
+
+    Gauge.builder("customers.search.index.size", this, CustomerSearchIndex::size)
+        .description("Quantidade de clientes no índice de busca em memória")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Carrega o índice com todos os clientes cadastrados no banco, se o índice
+   * estiver habilitado. Pode ser chamado novamente para reconstruir o índice,
+   * por exemplo depois de escritas feitas por outras instâncias; as buscas
+   * continuam usando o índice anterior até a troca.
+   * <p>
+   * As escritas confirmadas enquanto os clientes são lidos são aplicadas ao
+   * índice anterior e guardadas, e depois reaplicadas, na mesma ordem, sobre o
+   * índice carregado, que pode ter lido o banco antes delas.
+   * </p>
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    if (!enabled) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      pendingChanges = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Store loaded = new Store();
+    try {
+      new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+        try (Stream<CustomerSearchRow> rows = customerRepository.streamAllForSearch()) {
+          rows.forEach(row -> loaded.put(row.id(), entry(row.name(), row.district())));
+        }
+      });
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        pendingChanges = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+
+    lock.writeLock().lock();
+    try {
+      pendingChanges.forEach(change -> change.accept(loaded));
+      pendingChanges = null;
+      store = loaded;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    ready = true;
+  }
+
+  /**
+   * Indica se as buscas podem ser atendidas pelo índice.
+   *
+   * @return true se o índice está habilitado e carregado.
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Busca os clientes cujo nome corresponde ao texto informado, opcionalmente
+   * filtrando pelo início do bairro.
+   *
+   * @param query    O texto buscado.
+   * @param district O início do bairro, ou null para qualquer bairro.
+   * @param offset   A quantidade de resultados a pular.
+   * @param limit    A quantidade máxima de resultados.
+   * @return Os IDs encontrados, ordenados por relevância: nome que começa com o
+   *         texto, palavra do nome que começa com o texto, similaridade e ID.
+   */
+  public List<Long> search(String query, String district, int offset, int limit) {
+    String normalizedQuery = normalize(query);
+    String normalizedDistrict = district == null ? "" : normalize(district);
+    long[] queryTrigrams = trigrams(normalizedQuery);
+    if (queryTrigrams.length == 0) {
+      return List.of();
+    }
+
+    String wordPrefix = " " + normalizedQuery;
+    int queryLength = queryTrigrams.length;
+    // A tolerância evita que 0.3 * 10 = 3.0000000000000004 seja arredondado para 4
+    int minShared = Math.min((int) Math.ceil(SIMILARITY_THRESHOLD * queryLength - 1e-9), queryLength - 1);
+    int wanted = offset + limit;
+    PriorityQueue<Hit> best = new PriorityQueue<>(wanted + 1, RELEVANCE.reversed());
+
+    lock.readLock().lock();
+    try {
+      Store current = store;
+
+      IntList[] lists = new IntList[queryLength];
+      int postings = 0;
+      for (int i = 0; i < queryLength; i++) {
+        lists[i] = current.postings.get(queryTrigrams[i]);
+        postings += lists[i] == null ? 0 : lists[i].size;
+      }
+
+      // Quantidade de trigramas da busca presentes em cada nome
+      SlotCounts shared = new SlotCounts(Math.min(postings, current.used));
+      for (IntList slots : lists) {
+        if (slots != null) {
+          for (int k = 0; k < slots.size; k++) {
+            shared.increment(slots.values[k]);
+          }
+        }
+      }
+
+      for (int i = 0; i < shared.keys.length; i++) {
+        int count = shared.counts[i];
+        if (count == 0 || count < minShared) {
+          continue;
+        }
+        int slot = shared.keys[i] - 1;
+        Entry entry = current.entries[slot];
+        if (!entry.district().startsWith(normalizedDistrict)) {
+          continue;
+        }
+        // Um prefixo de palavra contém todos os trigramas da busca, exceto talvez o último
+        int rank = count < queryLength - 1 ? 0
+            : entry.name().startsWith(normalizedQuery) ? 2
+                : entry.name().contains(wordPrefix) ? 1 : 0;
+        double similarity = (double) count / (queryLength + entry.trigrams().length - count);
+        if (rank == 0 && similarity < SIMILARITY_THRESHOLD) {
+          continue;
+        }
+        Hit worst = best.size() == wanted ? best.peek() : null;
+        if (worst != null && (rank < worst.rank() || rank == worst.rank() && similarity < worst.similarity())) {
+          continue;
+        }
+        best.add(new Hit(current.ids[slot], rank, similarity));
+        if (best.size() > wanted) {
+          best.poll();
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    List<Hit> ranked = new ArrayList<>(best);
+    ranked.sort(RELEVANCE);
+    return ranked.stream()
+        .skip(offset)
+        .map(Hit::id)
+        .toList();
+  }
+
+  /**
+   * Inclui ou atualiza um cliente no índice após o commit da transação atual,
+   * ou imediatamente se não houver transação ativa.
+   *
+   * @param id       O ID do cliente.
+   * @param name     O nome do cliente.
+   * @param district O bairro do cliente.
+   */
+  public void putAfterCommit(Long id, String name, String district) {
+    afterCommit(() -> put(id, name, district));
+  }
+
+  /**
+   * Remove clientes do índice após o commit da transação atual, ou
+   * imediatamente se não houver transação ativa.
+   *
+   * @param ids Os IDs dos clientes.
+   */
+  public void removeAllAfterCommit(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    List<Long> removed = List.copyOf(ids);
+    afterCommit(() -> removeAll(removed));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (!enabled) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private void put(Long id, String name, String district) {
+    Entry entry = entry(name, district);
+    change(current -> current.put(id, entry));
+  }
+
+  private void removeAll(Collection<Long> ids) {
+    change(current -> current.removeAll(ids));
+  }
+
+  private void change(Consumer<Store> change) {
+    lock.writeLock().lock();
+    try {
+      change.accept(store);
+      if (pendingChanges != null) {
+        pendingChanges.add(change);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Entry entry(String name, String district) {
+    String normalizedName = normalize(name);
+    return new Entry(normalizedName, district == null ? "" : normalize(district), trigrams(normalizedName));
+  }
+
+  private int size() {
+    lock.readLock().lock();
+    try {
+      return store.slots.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Normaliza um texto para a busca: remove acentos, converte para minúsculas
+   * e troca qualquer sequência de caracteres que não sejam letras ou dígitos
+   * por um único espaço.
+   *
+   * @param text O texto original.
+   * @return O texto normalizado, sem espaços nas pontas.
+   */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+    StringBuilder normalized = new StringBuilder(decomposed.length());
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK) {
+        continue;
+      }
+      if (Character.isLetterOrDigit(c)) {
+        normalized.append(c);
+      } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+        normalized.append(' ');
+      }
+    }
+    return normalized.toString().trim();
+  }
+
+  /**
+   * Extrai os trigramas distintos de um texto normalizado, em ordem crescente.
+   */
+  static long[] trigrams(String normalizedText) {
+    if (normalizedText.isEmpty()) {
+      return new long[0];
+    }
+
+    long[] all = new long[normalizedText.length() * 3 + 3];
+    int count = 0;
+    for (String word : normalizedText.split(" ")) {
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        all[count++] = trigram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+      }
+    }
+
+    Arrays.sort(all, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if (unique == 0 || all[i] != all[unique - 1]) {
+        all[unique++] = all[i];
+      }
+    }
+    return Arrays.copyOf(all, unique);
+  }
+
+  private static long trigram(char a, char b, char c) {
+    return ((long) a << 32) | ((long) b << 16) | c;
+  }
+
+  private record Entry(String name, String district, long[] trigrams) {
+  }
+
+  private record Hit(long id, int rank, double similarity) {
+  }
+
+  /**
+   * Contadores por posição de cliente, em uma tabela de endereçamento aberto
+   * com capacidade para a quantidade de posições esperada, de modo que a busca
+   * não aloque nem percorra um contador por cliente do índice.
+   */
+  private static final class SlotCounts {
+
+    /** A posição mais um em cada entrada; zero indica entrada vazia. */
+    private final int[] keys;
+
+    private final int[] counts;
+
+    private final int mask;
+
+    SlotCounts(int expected) {
+      int capacity = Integer.highestOneBit(Math.max(expected, 2) - 1) << 2;
+      keys = new int[capacity];
+      counts = new int[capacity];
+      mask = capacity - 1;
+    }
+
+    void increment(int slot) {
+      int key = slot + 1;
+      int i = (key * 0x9E3779B9 >>> 16 ^ key) & mask;
+      while (keys[i] != 0 && keys[i] != key) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      counts[i]++;
+    }
+  }
+
+  /**
+   * Conteúdo do índice. Cada cliente ocupa uma posição dos vetores
+   * {@code ids} e {@code entries}, e as listas de cada trigrama guardam essas
+   * posições, de modo que a busca percorre apenas vetores de tipos primitivos.
+   * <p>
+   * Para cada posição, {@code offsets} guarda onde ela está na lista de cada um
+   * dos seus trigramas, na ordem de {@link Entry#trigrams()}. A remoção troca a
+   * posição removida pela última de cada lista e corrige o deslocamento da
+   * posição movida, sem percorrer as listas.
+   * </p>
+   */
+  private static final class Store {
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    private final IntList freeSlots = new IntList();
+
+    private long[] ids = new long[1024];
+
+    private Entry[] entries = new Entry[1024];
+
+    private int[][] offsets = new int[1024][];
+
+    private int used;
+
+    void put(long id, Entry entry) {
+      remove(id);
+
+      int slot = freeSlots.size > 0 ? freeSlots.values[--freeSlots.size] : used++;
+      if (slot == ids.length) {
+        ids = Arrays.copyOf(ids, slot * 2);
+        entries = Arrays.copyOf(entries, slot * 2);
+        offsets = Arrays.copyOf(offsets, slot * 2);
+      }
+      long[] trigrams = entry.trigrams();
+      int[] slotOffsets = new int[trigrams.length];
+      for (int i = 0; i < trigrams.length; i++) {
+        slotOffsets[i] = postings.computeIfAbsent(trigrams[i], key -> new IntList()).add(slot);
+      }
+      ids[slot] = id;
+      entries[slot] = entry;
+      offsets[slot] = slotOffsets;
+      slots.put(id, slot);
+    }
+
+    void remove(long id) {
+      Integer slot = slots.remove(id);
+      if (slot == null) {
+        return;
+      }
+      long[] trigrams = entries[slot].trigrams();
+      for (int i = 0; i < trigrams.length; i++) {
+        IntList list = postings.get(trigrams[i]);
+        int offset = offsets[slot][i];
+        int moved = list.removeAt(offset);
+        if (moved >= 0) {
+          offsets[moved][Arrays.binarySearch(entries[moved].trigrams(), trigrams[i])] = offset;
+        }
+        if (list.size == 0) {
+          postings.remove(trigrams[i]);
+        }
+      }
+      entries[slot] = null;
+      offsets[slot] = null;
+      freeSlots.add(slot);
+    }
+
+    void removeAll(Collection<Long> removedIds) {
+      for (Long id : removedIds) {
+        remove(id);
+      }
+    }
+  }
+
+  /**
+   * Lista de {@code int} sem ordem definida; a remoção troca o valor removido
+   * pelo último.
+   */
+  private static final class IntList {
+
+    private int[] values = new int[4];
+
+    private int size;
+
+    /**
+     * @return A posição do valor na lista.
+     */
+    int add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size] = value;
+      return size++;
+    }
+
+    /**
+     * @return O valor movido para a posição removida, ou -1 se a posição era a
+     *         última.
+     */
+    int removeAt(int index) {
+      int last = values[--size];
+      if (index == size) {
+        return -1;
+      }
+      values[index] = last;
+      return last;
+    }
+  }
+}
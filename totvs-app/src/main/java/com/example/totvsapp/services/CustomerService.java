@@ -1,31 +1,118 @@
 package com.example.totvsapp.services;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.totvsapp.domain.Customers.CustomerBatchResult;
+import com.example.totvsapp.domain.Customers.CustomerChange;
+import com.example.totvsapp.domain.Customers.CustomerPage;
+import com.example.totvsapp.domain.Customers.CustomerPhoneRow;
+import com.example.totvsapp.domain.Customers.CustomerVersionRow;
+import com.example.totvsapp.domain.Customers.CustomerView;
 import com.example.totvsapp.domain.Customers.Customers;
 import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.domain.Phones.PhoneNumber;
+import com.example.totvsapp.domain.Phones.PhoneView;
 import com.example.totvsapp.domain.Phones.Phones;
 import com.example.totvsapp.exceptions.CustomerNotFoundException;
+import com.example.totvsapp.exceptions.CustomerVersionMismatchException;
 import com.example.totvsapp.exceptions.PhoneAlreadyLinkedException;
 import com.example.totvsapp.exceptions.PhoneEmptyException;
 import com.example.totvsapp.exceptions.PhoneFormatInvalidException;
+import com.example.totvsapp.exceptions.PhoneNotFoundException;
 import com.example.totvsapp.repositories.CustomerRepository;
 import com.example.totvsapp.repositories.PhoneRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class CustomerService {
 
+  /**
+   * Quantidade máxima de números por consulta {@code IN (...)}, mantendo a
+   * quantidade de parâmetros bem abaixo do limite do driver do PostgreSQL.
+   */
+  private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+  /**
+   * Quantidade de clientes persistidos antes de cada flush/clear durante a
+   * inserção em lote, limitando o tamanho do contexto de persistência.
+   */
+  private static final int BATCH_FLUSH_SIZE = 500;
+
+  /**
+   * Quantidade de bytes do resumo SHA-256 usados na marca de versão da lista
+   * de clientes.
+   */
+  private static final int LIST_TAG_DIGEST_BYTES = 16;
+
+  /**
+   * Quantidade de clientes por página quando o tamanho não é informado.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 50;
+
+  /**
+   * Quantidade máxima de clientes por página.
+   */
+  public static final int MAX_PAGE_SIZE = 500;
+
+  /**
+   * Quantidade de clientes por página da busca quando o tamanho não é
+   * informado.
+   */
+  public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+
+  /**
+   * Quantidade máxima de clientes por página da busca.
+   */
+  public static final int MAX_SEARCH_PAGE_SIZE = 100;
+
   @Autowired
   private CustomerRepository customerRepository;
 
   @Autowired
   private PhoneRepository phoneRepository;
 
+  @Autowired
+  private PhoneNumberIndex phoneNumberIndex;
+
+  @Autowired
+  private CustomerCache customerCache;
+
+  @Autowired
+  private PhoneLookupCache phoneLookupCache;
+
+  @Autowired
+  private CustomerSearchIndex customerSearchIndex;
+
+  @Autowired
+  private CustomerChangeFeed customerChangeFeed;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   /**
    * Insere um novo cliente no sistema.
    *
@@ -35,64 +122,300 @@ public class CustomerService {
    *                                     vazia ou nula.
    * @throws PhoneFormatInvalidException Se algum número de telefone tiver um
    *                                     formato inválido.
-   * @throws PhoneAlreadyLinkedException Se algum número de telefone já estiver
+   * @throws PhoneAlreadyLinkedException Se algum número de telefone se repetir
+   *                                     no próprio cliente, inclusive em
+   *                                     formatos diferentes, ou já estiver
    *                                     vinculado a outro cliente.
    */
   @Transactional
   public Customers insert(CustomersDTO customersDTO) {
-    try {
-      validatePhones(customersDTO.phones());
+    customersDTO = normalizePhones(customersDTO);
+    validatePhones(customersDTO.phones());
+
+    Customers newCustomers = new Customers(customersDTO);
+    List<Phones> phones = createPhoneEntities(newCustomers, customersDTO.phones());
 
-      Customers newCustomers = new Customers(customersDTO);
-      List<Phones> phones = createPhoneEntities(newCustomers, customersDTO.phones());
+    newCustomers.setPhones(phones);
+    customerRepository.save(newCustomers);
 
-      newCustomers.setPhones(phones);
-      customerRepository.save(newCustomers);
+    phones.forEach(phone -> phone.setCustomers(newCustomers));
+    phoneRepository.saveAll(phones);
+    phoneNumberIndex.addAllAfterCommit(customersDTO.phones());
+    customerSearchIndex.putAfterCommit(newCustomers.getId(), newCustomers.getName(), newCustomers.getDistrict());
+    customerChangeFeed.publishAfterCommit(CustomerChange.Type.INSERTED, newCustomers);
 
-      phones.forEach(phone -> phone.setCustomers(newCustomers));
-      phoneRepository.saveAll(phones);
+    return newCustomers;
+  }
 
-      return newCustomers;
-    } catch (PhoneEmptyException | PhoneFormatInvalidException | PhoneAlreadyLinkedException e) {
-      throw new RuntimeException("Erro ao salvar cliente", e);
+  /**
+   * Insere um lote de clientes no sistema.
+   * <p>
+   * Todos os telefones do lote são validados de uma vez: o formato é
+   * normalizado em memória e a existência é consultada com {@code number IN (...)}, em vez
+   * de uma consulta por telefone. Um telefone repetido entre itens do próprio
+   * lote também é considerado já vinculado. Itens inválidos são rejeitados
+   * individualmente sem impedir a inserção dos demais.
+   * </p>
+   *
+   * @param customersDTOs Os dados dos clientes a serem inseridos.
+   * @return O resultado de cada item, na mesma ordem do lote recebido.
+   */
+  @Transactional
+  public List<CustomerBatchResult> insertAll(List<CustomersDTO> customersDTOs) {
+    CustomerBatchResult[] results = new CustomerBatchResult[customersDTOs.size()];
+    CustomersDTO[] normalized = new CustomersDTO[customersDTOs.size()];
+    Set<String> requestedNumbers = new HashSet<>();
+
+    for (int i = 0; i < customersDTOs.size(); i++) {
+      try {
+        normalized[i] = normalizePhones(customersDTOs.get(i));
+        requestedNumbers.addAll(normalized[i].phones());
+      } catch (PhoneEmptyException | PhoneFormatInvalidException e) {
+        results[i] = CustomerBatchResult.failed(i, errorCode(e), e.getMessage());
+      }
     }
+
+    Set<String> linkedNumbers = findLinkedNumbers(requestedNumbers);
+    List<Customers> pending = new ArrayList<>(BATCH_FLUSH_SIZE);
+    List<Integer> pendingIndexes = new ArrayList<>(BATCH_FLUSH_SIZE);
+
+    for (int i = 0; i < customersDTOs.size(); i++) {
+      if (results[i] != null) {
+        continue;
+      }
+
+      List<String> phoneNumbers = normalized[i].phones();
+      Set<String> itemNumbers = new HashSet<>(phoneNumbers);
+      if (itemNumbers.size() != phoneNumbers.size() || itemNumbers.stream().anyMatch(linkedNumbers::contains)) {
+        PhoneAlreadyLinkedException e = new PhoneAlreadyLinkedException();
+        results[i] = CustomerBatchResult.failed(i, errorCode(e), e.getMessage());
+        continue;
+      }
+      linkedNumbers.addAll(itemNumbers);
+      phoneNumberIndex.addAllAfterCommit(itemNumbers);
+
+      pending.add(new Customers(normalized[i]));
+      pendingIndexes.add(i);
+      if (pending.size() == BATCH_FLUSH_SIZE) {
+        saveBatch(pending, pendingIndexes, results);
+      }
+    }
+    saveBatch(pending, pendingIndexes, results);
+
+    return List.of(results);
   }
 
   /**
    * Obtém todos os clientes no sistema.
+   * Os telefones são lidos junto com os clientes em uma única consulta, de modo
+   * que o número de consultas não cresce com a quantidade de clientes.
+   * <p>
+   * Os clientes são montados como {@link CustomerView} a partir de uma
+   * projeção, sem entidades gerenciadas. A transação somente leitura deixa a
+   * sessão do Hibernate em modo somente leitura e com flush MANUAL.
+   * </p>
    *
    * @return Uma lista de todos os clientes.
    */
-  public List<Customers> getAll() {
-    List<Customers> customers = customerRepository.findAll();
-    customers.forEach(customer -> {
-      List<Phones> phones = phoneRepository.findByCustomersId(customer.getId());
-      customer.setPhones(phones);
-    });
-
+  @Transactional(readOnly = true)
+  public List<CustomerView> getAll() {
+    List<CustomerView> customers = new ArrayList<>();
+    groupRows(customerRepository.findAllRows().iterator(), customers::add);
     return customers;
   }
 
   /**
-   * Exclui um cliente do sistema.
+   * Obtém uma página de clientes por paginação por chave: os clientes com ID
+   * maior que o cursor informado, em ordem crescente de ID.
+   * <p>
+   * São executadas no máximo duas consultas, independentemente da posição da
+   * página: uma que percorre o índice da chave primária a partir do cursor,
+   * sem OFFSET, e outra que lê os clientes da página com seus telefones por
+   * projeção, sem entidades gerenciadas.
+   * </p>
+   *
+   * @param after O cursor: o ID do último cliente da página anterior, ou 0
+   *              para a primeira página.
+   * @param limit A quantidade máxima de clientes, limitada entre 1 e
+   *              {@value #MAX_PAGE_SIZE}.
+   * @return A página de clientes e o cursor da próxima página.
+   */
+  @Transactional(readOnly = true)
+  public CustomerPage getPage(long after, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+    // Um ID a mais indica se existe uma próxima página
+    List<Long> ids = customerRepository.findIdsAfter(after, Limit.of(size + 1));
+    boolean hasNext = ids.size() > size;
+    if (hasNext) {
+      ids = ids.subList(0, size);
+    }
+    if (ids.isEmpty()) {
+      return new CustomerPage(List.of(), null);
+    }
+
+    List<CustomerView> customers = new ArrayList<>(ids.size());
+    groupRows(customerRepository.findRowsByIdIn(ids).iterator(), customers::add);
+    return new CustomerPage(customers, hasNext ? ids.get(ids.size() - 1) : null);
+  }
+
+  /**
+   * Busca clientes pelo nome, por prefixo ou por semelhança, opcionalmente
+   * filtrando pelo início do bairro. Os resultados são ordenados por
+   * relevância e paginados.
+   * <p>
+   * A busca é atendida pelo índice em memória quando ele está habilitado e
+   * carregado; caso contrário, pela consulta com trigramas do PostgreSQL. Em
+   * ambos os casos os clientes da página são lidos com seus telefones por
+   * projeção, em uma única consulta.
+   * </p>
+   *
+   * @param query    O texto buscado no nome.
+   * @param district O início do bairro, ou null para qualquer bairro.
+   * @param offset   A quantidade de resultados a pular.
+   * @param limit    A quantidade máxima de clientes, limitada entre 1 e
+   *                 {@value #MAX_SEARCH_PAGE_SIZE}.
+   * @return A página de clientes, em ordem de relevância, e o cursor da
+   *         próxima página (a quantidade de resultados a pular).
+   */
+  @Transactional(readOnly = true)
+  public CustomerPage search(String query, String district, int offset, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+    int skip = Math.max(0, offset);
+    if (query == null || query.isBlank()) {
+      return new CustomerPage(List.of(), null);
+    }
+
+    // Um ID a mais indica se existe uma próxima página
+    List<Long> ids = customerSearchIndex.isReady()
+        ? customerSearchIndex.search(query, district, skip, size + 1)
+        : searchIdsInDatabase(query, district, skip, size + 1);
+    boolean hasNext = ids.size() > size;
+    if (hasNext) {
+      ids = ids.subList(0, size);
+    }
+    if (ids.isEmpty()) {
+      return new CustomerPage(List.of(), null);
+    }
+
+    Map<Long, CustomerView> customers = new HashMap<>();
+    groupRows(customerRepository.findRowsByIdIn(ids).iterator(), customer -> customers.put(customer.id(), customer));
+    List<CustomerView> ranked = ids.stream().map(customers::get).filter(Objects::nonNull).toList();
+    return new CustomerPage(ranked, hasNext ? (long) skip + size : null);
+  }
+
+  /**
+   * Obtém uma marca de versão da lista de clientes, que muda sempre que algum
+   * cliente é inserido, alterado ou excluído.
+   * <p>
+   * A marca é a quantidade de clientes seguida de um resumo SHA-256 dos pares
+   * (ID, versão) em ordem de ID, lidos por um cursor sobre a chave primária,
+   * sem carregar a lista. Ao contrário de agregações como soma e máximo, o
+   * resumo muda quando um cliente é trocado por outro com o mesmo total.
+   * </p>
+   *
+   * @return A marca de versão da lista de clientes.
+   */
+  @Transactional(readOnly = true)
+  public String getListVersionTag() {
+    MessageDigest digest = newListDigest();
+    ByteBuffer pair = ByteBuffer.allocate(2 * Long.BYTES);
+    long count = 0;
+    try (Stream<CustomerVersionRow> rows = customerRepository.streamAllVersions()) {
+      for (Iterator<CustomerVersionRow> iterator = rows.iterator(); iterator.hasNext(); count++) {
+        CustomerVersionRow row = iterator.next();
+        pair.clear();
+        pair.putLong(row.id()).putLong(row.version() != null ? row.version() : 0L);
+        digest.update(pair.array());
+      }
+    }
+    return count + "-" + HexFormat.of().formatHex(digest.digest(), 0, LIST_TAG_DIGEST_BYTES);
+  }
+
+  private static MessageDigest newListDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Percorre todos os clientes do sistema, entregando cada um, já com seus
+   * telefones, ao consumidor informado.
+   * <p>
+   * Os dados são lidos por um cursor do banco e cada cliente é montado como um
+   * {@link CustomerView}, descartado assim que o consumidor retorna. Dessa
+   * forma o uso de memória não depende da quantidade de clientes.
+   * </p>
+   *
+   * @param consumer O consumidor que receberá cada cliente, na ordem do ID.
+   */
+  @Transactional(readOnly = true)
+  public void exportAll(Consumer<CustomerView> consumer) {
+    try (Stream<CustomerPhoneRow> rows = customerRepository.streamAllWithPhones()) {
+      groupRows(rows.iterator(), consumer);
+    }
+  }
+
+  /**
+   * Exclui um cliente do sistema, com uma quantidade constante de instruções:
+   * veja {@link #deleteAll(Collection)}.
    *
    * @param id O ID do cliente a ser excluído.
    * @throws CustomerNotFoundException Se o cliente não for encontrado.
    */
   @Transactional
   public void delete(Long id) {
-    Customers customers = customerRepository.findById(id)
-        .orElseThrow(() -> new CustomerNotFoundException());
-
-    List<Phones> phones = phoneRepository.findByCustomersId(customers.getId());
+    if (deleteAll(List.of(id)) == 0) {
+      throw new CustomerNotFoundException();
+    }
+  }
 
-    if (phones != null && !phones.isEmpty()) {
-      for (Phones phone : phones) {
-        phoneRepository.delete(phone);
+  /**
+   * Exclui vários clientes do sistema. IDs inexistentes ou repetidos são
+   * ignorados.
+   * <p>
+   * Os IDs são processados em blocos de até {@value #IN_CLAUSE_CHUNK_SIZE}, com
+   * duas instruções por bloco: uma consulta {@code IN (...)} que obtém os
+   * clientes existentes e seus telefones, para atualizar os caches e os
+   * índices em memória, e um {@code DELETE} em lote dos clientes. Os telefones são
+   * excluídos pelo banco, pela chave estrangeira com {@code ON DELETE CASCADE}.
+   * Nenhuma entidade é carregada.
+   * </p>
+   *
+   * @param ids Os IDs dos clientes a serem excluídos.
+   * @return A quantidade de clientes excluídos.
+   */
+  @Transactional
+  public int deleteAll(Collection<Long> ids) {
+    List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+    List<Long> deletedIds = new ArrayList<>();
+    List<String> removedPhoneNumbers = new ArrayList<>();
+
+    for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+      List<Long> chunk = distinctIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size()));
+
+      Long previousId = null;
+      for (CustomerPhoneRow row : customerRepository.findRowsByIdIn(chunk)) {
+        if (!row.customerId().equals(previousId)) {
+          deletedIds.add(row.customerId());
+          previousId = row.customerId();
+        }
+        if (row.number() != null) {
+          removedPhoneNumbers.add(row.number());
+        }
       }
+      customerRepository.deleteByIds(chunk);
     }
 
-    this.customerRepository.delete(customers);
+    customerCache.invalidateAll(deletedIds);
+    customerSearchIndex.removeAllAfterCommit(deletedIds);
+    phoneLookupCache.invalidateAll(removedPhoneNumbers);
+    phoneNumberIndex.removeAllAfterCommit(removedPhoneNumbers);
+    customerChangeFeed.publishDeletedAfterCommit(deletedIds);
+
+    return deletedIds.size();
   }
 
   /**
@@ -105,102 +428,349 @@ public class CustomerService {
    */
   @Transactional
   public Customers update(Long id, CustomersDTO customersDTO) {
-    try {
-      Customers customers = customerRepository.findById(id)
-          .orElseThrow(() -> new CustomerNotFoundException());
-
-      validatePhones(customersDTO.phones());
-
-      customers.setName(customersDTO.name());
-      customers.setAddress(customersDTO.address());
-      customers.setDistrict(customersDTO.district());
+    return update(id, customersDTO, null);
+  }
 
-      List<Phones> existingPhones = phoneRepository.findByCustomersId(id);
-      List<String> newPhoneNumbers = customersDTO.phones();
+  /**
+   * Atualiza os dados de um cliente no sistema, desde que ele ainda esteja na
+   * versão esperada. A versão do cliente é incrementada uma única vez por
+   * atualização, inclusive quando apenas os telefones mudam, para que a ETag
+   * do cliente sempre reflita a alteração; sem nenhuma alteração, a versão é
+   * mantida.
+   * <p>
+   * Os telefones são comparados por conjuntos: apenas os números novos são
+   * validados, os removidos são excluídos e os novos inseridos em lote, de modo
+   * que a quantidade de idas ao banco não depende da quantidade de telefones.
+   * </p>
+   *
+   * @param id              O ID do cliente a ser atualizado.
+   * @param customersDTO    Os novos dados do cliente.
+   * @param expectedVersion A versão esperada do cliente, ou null para atualizar
+   *                        qualquer versão.
+   * @return O cliente atualizado.
+   * @throws CustomerNotFoundException         Se o cliente não for encontrado.
+   * @throws CustomerVersionMismatchException Se o cliente não estiver na versão
+   *                                          esperada.
+   * @throws PhoneFormatInvalidException      Se algum número de telefone tiver
+   *                                          um formato inválido.
+   * @throws PhoneAlreadyLinkedException      Se algum número de telefone
+   *                                          estiver repetido na requisição
+   *                                          ou, sendo novo, já estiver
+   *                                          vinculado a outro cliente.
+   */
+  @Transactional
+  public Customers update(Long id, CustomersDTO customersDTO, Long expectedVersion) {
+    Customers customers = customerRepository.findWithPhonesById(id)
+        .orElseThrow(() -> new CustomerNotFoundException());
+    customerCache.invalidate(id);
 
-      existingPhones.stream()
-          .filter(phone -> !newPhoneNumbers.contains(phone.getNumber()))
-          .forEach(phoneRepository::delete);
+    if (expectedVersion != null && !expectedVersion.equals(customers.getVersion())) {
+      throw new CustomerVersionMismatchException();
+    }
 
-      for (String newPhoneNumber : newPhoneNumbers) {
-        Phones phone = existingPhones.stream()
-            .filter(existingPhone -> existingPhone.getNumber().equals(newPhoneNumber))
-            .findFirst()
-            .orElseGet(() -> new Phones(newPhoneNumber));
+    customersDTO = normalizePhones(customersDTO);
+    Set<String> newPhoneNumbers = new LinkedHashSet<>(customersDTO.phones());
+    if (newPhoneNumbers.size() != customersDTO.phones().size()) {
+      throw new PhoneAlreadyLinkedException();
+    }
+    Set<String> existingPhoneNumbers = new HashSet<>();
+    customers.getPhones().forEach(phone -> existingPhoneNumbers.add(phone.getNumber()));
+
+    List<String> addedPhoneNumbers = newPhoneNumbers.stream()
+        .filter(number -> !existingPhoneNumbers.contains(number))
+        .toList();
+    validatePhones(addedPhoneNumbers);
+
+    // Alterações nos dados tornam o cliente sujo e o @Version é incrementado
+    // no flush. A coleção de telefones é o lado inverso da associação e não
+    // suja o cliente: só nesse caso a versão é incrementada explicitamente.
+    boolean detailsChanged = !Objects.equals(customers.getName(), customersDTO.name())
+        || !Objects.equals(customers.getAddress(), customersDTO.address())
+        || !Objects.equals(customers.getDistrict(), customersDTO.district());
+    if (!detailsChanged && !newPhoneNumbers.equals(existingPhoneNumbers)) {
+      entityManager.lock(customers, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
 
-        // Verifica se o telefone pertence a outro cliente
-        if (phone.getCustomers() != null && !phone.getCustomers().equals(customers)) {
-          throw new PhoneAlreadyLinkedException();
-        }
+    customers.setName(customersDTO.name());
+    customers.setAddress(customersDTO.address());
+    customers.setDistrict(customersDTO.district());
 
-        phone.setCustomers(customers);
-        phoneRepository.save(phone);
+    // Os telefones removidos da coleção são excluídos por orphanRemoval
+    List<String> removedPhoneNumbers = new ArrayList<>();
+    customers.getPhones().removeIf(phone -> {
+      boolean removed = !newPhoneNumbers.contains(phone.getNumber());
+      if (removed) {
+        removedPhoneNumbers.add(phone.getNumber());
       }
+      return removed;
+    });
+    customers.getPhones().addAll(createPhoneEntities(customers, addedPhoneNumbers));
 
-      return customerRepository.save(customers);
-    } catch (CustomerNotFoundException | PhoneEmptyException | PhoneFormatInvalidException
-        | PhoneAlreadyLinkedException e) {
-      throw new RuntimeException("Erro ao atualizar cliente", e);
-    }
+    phoneLookupCache.invalidateAll(removedPhoneNumbers);
+    phoneNumberIndex.removeAllAfterCommit(removedPhoneNumbers);
+    phoneNumberIndex.addAllAfterCommit(addedPhoneNumbers);
+    customerSearchIndex.putAfterCommit(id, customers.getName(), customers.getDistrict());
+    customerChangeFeed.publishAfterCommit(CustomerChange.Type.UPDATED, customers);
+
+    return customers;
   }
 
   /**
    * Obtém um cliente pelo ID.
+   * A consulta passa pelo cache de clientes; somente em caso de falha o cliente
+   * e seus telefones são lidos do banco por projeção, em uma única consulta.
    *
    * @param id O ID do cliente a ser recuperado.
-   * @return O cliente encontrado.
+   * @return Uma representação imutável do cliente encontrado.
    * @throws CustomerNotFoundException Se o cliente não for encontrado.
    */
-  @Transactional
-  public Customers getCustomerById(Long id) {
-    Customers customers = customerRepository.findById(id)
-        .orElseThrow(CustomerNotFoundException::new);
+  public CustomerView getCustomerById(Long id) {
+    return customerCache.get(id, customerId -> {
+      List<CustomerView> customers = new ArrayList<>(1);
+      groupRows(customerRepository.findRowsById(customerId).iterator(), customers::add);
+      if (customers.isEmpty()) {
+        throw new CustomerNotFoundException();
+      }
+      return customers.get(0);
+    });
+  }
+
+  /**
+   * Obtém o cliente dono de um número de telefone.
+   * <p>
+   * O número passa pelo cache de telefones e, em seguida, pelo cache de
+   * clientes; com os dois caches quentes, nenhuma consulta é feita. Números não
+   * encontrados não ficam em cache, e cada consulta por eles vai ao banco, pois
+   * podem ter sido cadastrados por outra instância da aplicação. Se o cliente
+   * em cache não tiver mais o número, por uma alteração feita em outra
+   * instância, os dois caches são invalidados e o vínculo é lido de novo do
+   * banco.
+   * </p>
+   *
+   * @param phoneNumber O número de telefone, formatado ou não.
+   * @return Uma representação imutável do cliente dono do número.
+   * @throws PhoneFormatInvalidException Se o número não tiver um formato válido.
+   * @throws PhoneNotFoundException      Se o número não estiver vinculado a
+   *                                     nenhum cliente.
+   */
+  public CustomerView getCustomerByPhone(String phoneNumber) {
+    String number = PhoneNumber.normalize(phoneNumber);
+    if (number == null) {
+      throw new PhoneFormatInvalidException(phoneNumber);
+    }
 
-    customers.getPhones();
+    for (int attempt = 0; attempt < 2; attempt++) {
+      Long customerId = phoneLookupCache.get(number,
+          key -> phoneRepository.findCustomerIdByNumber(key).orElse(null));
+      if (customerId == null) {
+        break;
+      }
 
-    return customers;
+      try {
+        CustomerView customer = getCustomerById(customerId);
+        for (PhoneView phone : customer.phones()) {
+          if (phone.number().equals(number)) {
+            return customer;
+          }
+        }
+      } catch (CustomerNotFoundException e) {
+        // O cliente foi excluído depois que o vínculo entrou no cache
+      }
+      phoneLookupCache.invalidate(number);
+      customerCache.invalidate(customerId);
+    }
+    throw new PhoneNotFoundException();
   }
 
   /**
-   * Verifica se um número de telefone tem um formato válido.
+   * Valida a lista de números de telefone, já normalizados, garantindo que
+   * nenhum número se repete na lista e que nenhum já está associado a outro
+   * cliente. Todos os números são verificados com uma única consulta
+   * {@code IN (...)}.
    *
-   * @param phoneNumber O número de telefone a ser verificado.
-   * @return true se o número de telefone tiver um formato válido, false caso
-   *         contrário.
+   * @param phoneNumbers Lista de números de telefone a serem validados.
+   * @throws PhoneAlreadyLinkedException Se algum número de telefone se repetir
+   *                                     na lista ou já estiver associado a
+   *                                     outro cliente.
    */
-  private boolean isValidPhoneNumber(String phoneNumber) {
-    return phoneNumber.matches("\\d{10,11}");
+  private void validatePhones(Collection<String> phoneNumbers) {
+    Set<String> distinctNumbers = new HashSet<>(phoneNumbers);
+    if (distinctNumbers.size() != phoneNumbers.size() || !findLinkedNumbers(distinctNumbers).isEmpty()) {
+      throw new PhoneAlreadyLinkedException();
+    }
   }
 
   /**
-   * Valida a lista de números de telefone, garantindo que não está vazia, que
-   * cada número é válido
-   * e que nenhum dos números já está associado a outro cliente.
+   * Valida os números de telefone do DTO sem consultar o banco e os converte
+   * para a forma canônica (apenas dígitos), de modo que entradas como
+   * {@code "(11) 98765-4321"} sejam aceitas e armazenadas como
+   * {@code "11987654321"}.
    *
-   * @param phoneNumbers Lista de números de telefone a serem validados.
+   * @param customersDTO Os dados do cliente.
+   * @return Uma cópia do DTO com os telefones normalizados.
    * @throws PhoneEmptyException         Se a lista de números de telefone estiver
    *                                     vazia.
    * @throws PhoneFormatInvalidException Se pelo menos um número de telefone não
    *                                     for válido.
-   * @throws PhoneAlreadyLinkedException Se pelo menos um número de telefone já
-   *                                     estiver associado a outro cliente.
    */
-  private void validatePhones(List<String> phoneNumbers) {
+  private CustomersDTO normalizePhones(CustomersDTO customersDTO) {
+    List<String> phoneNumbers = customersDTO.phones();
     if (phoneNumbers == null || phoneNumbers.isEmpty() || phoneNumbers.size() == 0
         || phoneNumbers.stream().allMatch(String::isEmpty)) {
       throw new PhoneEmptyException();
     }
 
+    List<String> normalizedNumbers = new ArrayList<>(phoneNumbers.size());
     for (String phoneNumber : phoneNumbers) {
-      if (!isValidPhoneNumber(phoneNumber)) {
+      String normalizedNumber = PhoneNumber.normalize(phoneNumber);
+      if (normalizedNumber == null) {
         throw new PhoneFormatInvalidException(phoneNumber);
       }
+      normalizedNumbers.add(normalizedNumber);
+    }
+
+    return new CustomersDTO(customersDTO.name(), customersDTO.address(), customersDTO.district(), normalizedNumbers);
+  }
+
+  /**
+   * Consulta quais dos números informados já estão vinculados a algum cliente,
+   * usando uma consulta {@code IN (...)} por bloco de números. Números que o
+   * {@link PhoneNumberIndex} garante não estarem cadastrados não são
+   * consultados; um vínculo feito por outra instância e ainda ausente do índice
+   * é barrado pelo índice único do banco no commit.
+   *
+   * @param phoneNumbers Os números de telefone a serem consultados.
+   * @return Um conjunto mutável com os números já cadastrados.
+   */
+  private Set<String> findLinkedNumbers(Set<String> phoneNumbers) {
+    Set<String> linkedNumbers = new HashSet<>();
+    List<String> chunk = new ArrayList<>(Math.min(phoneNumbers.size(), IN_CLAUSE_CHUNK_SIZE));
+    int candidates = 0;
+
+    for (String phoneNumber : phoneNumbers) {
+      if (!phoneNumberIndex.mightContain(phoneNumber)) {
+        continue;
+      }
+      candidates++;
+      chunk.add(phoneNumber);
+      if (chunk.size() == IN_CLAUSE_CHUNK_SIZE) {
+        linkedNumbers.addAll(phoneRepository.findNumbersIn(chunk));
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      linkedNumbers.addAll(phoneRepository.findNumbersIn(chunk));
+    }
+
+    for (int i = linkedNumbers.size(); i < candidates; i++) {
+      phoneNumberIndex.recordFalsePositive();
+    }
+
+    return linkedNumbers;
+  }
+
+  /**
+   * Persiste um bloco de clientes do lote (os telefones seguem por cascata),
+   * registra o ID gerado de cada um e limpa o contexto de persistência.
+   *
+   * @param pending        Os clientes pendentes; a lista é esvaziada ao final.
+   * @param pendingIndexes As posições no lote de cada cliente pendente; a lista
+   *                       é esvaziada ao final.
+   * @param results        O vetor de resultados a ser preenchido.
+   */
+  private void saveBatch(List<Customers> pending, List<Integer> pendingIndexes, CustomerBatchResult[] results) {
+    if (pending.isEmpty()) {
+      return;
+    }
+
+    customerRepository.saveAll(pending);
+    entityManager.flush();
+
+    for (int i = 0; i < pending.size(); i++) {
+      Customers customer = pending.get(i);
+      int index = pendingIndexes.get(i);
+      results[index] = CustomerBatchResult.created(index, customer.getId());
+      customerSearchIndex.putAfterCommit(customer.getId(), customer.getName(), customer.getDistrict());
+      customerChangeFeed.publishAfterCommit(CustomerChange.Type.INSERTED, customer);
+    }
+
+    entityManager.clear();
+    pending.clear();
+    pendingIndexes.clear();
+  }
+
+  /**
+   * Obtém o código de erro exposto nas respostas para uma exceção de validação.
+   *
+   * @param exception A exceção de validação.
+   * @return O código de erro correspondente.
+   */
+  private String errorCode(RuntimeException exception) {
+    return switch (exception) {
+      case PhoneEmptyException e -> "PHONE_EMPTY";
+      case PhoneFormatInvalidException e -> "PHONE_FORMAT_INVALID";
+      case PhoneAlreadyLinkedException e -> "PHONE_ALREADY_LINKED";
+      default -> "UNEXPECTED_ERROR";
+    };
+  }
+
+  /**
+   * Busca no banco com o texto e o bairro normalizados como no índice em
+   * memória. O texto normalizado contém apenas letras, dígitos e espaços, que
+   * não precisam ser escapados nos padrões {@code LIKE}.
+   */
+  private List<Long> searchIdsInDatabase(String query, String district, int offset, int limit) {
+    String normalizedQuery = CustomerSearchIndex.normalize(query);
+    if (normalizedQuery.isEmpty()) {
+      return List.of();
+    }
+    return customerRepository.searchIds(normalizedQuery, CustomerSearchIndex.normalize(district), offset, limit);
+  }
+
+  /**
+   * Agrupa linhas de cliente e telefone, ordenadas pelo ID do cliente, em um
+   * {@link CustomerView} por cliente, entregue ao consumidor assim que todas as
+   * suas linhas forem lidas.
+   *
+   * @param rows     As linhas, com os telefones de um mesmo cliente
+   *                 consecutivos.
+   * @param consumer O consumidor que receberá cada cliente.
+   */
+  private static void groupRows(Iterator<CustomerPhoneRow> rows, Consumer<CustomerView> consumer) {
+    CustomerPhoneRow first = null;
+    List<PhoneView> phones = new ArrayList<>();
+
+    while (rows.hasNext()) {
+      CustomerPhoneRow row = rows.next();
+
+      if (first == null || !first.customerId().equals(row.customerId())) {
+        if (first != null) {
+          consumer.accept(toView(first, phones));
+          phones.clear();
+        }
+        first = row;
+      }
 
-      Phones phoneAlreadyExist = phoneRepository.findByNumber(phoneNumber);
-      if (phoneAlreadyExist != null) {
-        throw new PhoneAlreadyLinkedException();
+      if (row.phoneId() != null) {
+        phones.add(new PhoneView(row.phoneId(), row.number()));
       }
     }
+
+    if (first != null) {
+      consumer.accept(toView(first, phones));
+    }
+  }
+
+  /**
+   * Monta um {@link CustomerView} a partir de uma linha do cliente e dos seus
+   * telefones.
+   *
+   * @param row    Uma linha do cliente.
+   * @param phones Os telefones do cliente; a lista é copiada.
+   * @return O cliente.
+   */
+  private static CustomerView toView(CustomerPhoneRow row, List<PhoneView> phones) {
+    return new CustomerView(row.customerId(), row.name(), row.address(), row.district(), row.version(), phones);
   }
 
   /**
@@ -0,0 +1,94 @@
+package com.example.totvsapp.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.totvsapp.domain.Phones.PhoneNumber;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache do vínculo entre números de telefone e clientes, usado na consulta
+ * reversa por telefone.
+ * <p>
+ * As chaves são os números na forma numérica de {@link PhoneNumber}, e os
+ * valores os IDs dos clientes; números não cadastrados não são guardados. O
+ * tamanho máximo e o tempo de expiração são configurados pelas propriedades
+ * {@code totvs.cache.phones.*}. Um número só muda de dono depois de ser
+ * removido de um cliente, então basta invalidar os números removidos. As
+ * métricas {@code cache.*} são publicadas com a tag {@code cache=phones}.
+ * </p>
+ */
+@Component
+public class PhoneLookupCache {
+
+  private final Cache<Long, Long> cache;
+
+  public PhoneLookupCache(
+      MeterRegistry meterRegistry,
+      @Value("${totvs.cache.phones.maximum-size:10000}") long maximumSize,
+      @Value("${totvs.cache.phones.expire-after-write:5m}") Duration expireAfterWrite) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "phones");
+  }
+
+  /**
+   * Obtém o ID do cliente dono de um número, carregando-o com a função
+   * informada quando não estiver no cache. Se a função retornar null, nada é
+   * guardado.
+   *
+   * @param number O número de telefone, na forma canônica.
+   * @param loader A função que obtém o ID do cliente no banco.
+   * @return O ID do cliente, ou null se o número não estiver cadastrado.
+   */
+  public Long get(String number, Function<String, Long> loader) {
+    return cache.get(PhoneNumber.encode(number), key -> loader.apply(number));
+  }
+
+  /**
+   * Remove um número do cache imediatamente.
+   *
+   * @param number O número de telefone, na forma canônica.
+   */
+  public void invalidate(String number) {
+    cache.invalidate(PhoneNumber.encode(number));
+  }
+
+  /**
+   * Remove números do cache imediatamente e novamente após o commit da
+   * transação atual, como faz o {@link CustomerCache}.
+   *
+   * @param numbers Os números de telefone removidos de seus clientes.
+   */
+  public void invalidateAll(Collection<String> numbers) {
+    if (numbers.isEmpty()) {
+      return;
+    }
+    List<Long> keys = numbers.stream().map(PhoneNumber::encode).toList();
+    cache.invalidateAll(keys);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cache.invalidateAll(keys);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package com.example.totvsapp.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.totvsapp.domain.Phones.PhoneNumber;
+import com.example.totvsapp.repositories.PhoneRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Índice em memória dos números de telefone já vinculados a clientes.
+ * <p>
+ * Responde ao caso negativo ("o número certamente não está cadastrado") sem
+ * consultar o banco. Uma resposta positiva significa apenas "talvez": quem
+ * consulta deve confirmar no banco. Por isso o índice pode conter números a
+ * mais (falsos positivos), mas nunca pode deixar de conter um número
+ * cadastrado por esta instância.
+ * </p>
+ * <p>
+ * Os números são guardados como {@code long} em uma tabela hash de
+ * endereçamento aberto, sem objetos por entrada. O índice é carregado na
+ * inicialização da aplicação; até lá, todas as consultas respondem "talvez".
+ * Inclusões e remoções são aplicadas após o commit da transação, de modo que
+ * um rollback não deixa números no índice.
+ * </p>
+ * <p>
+ * O índice só enxerga as escritas feitas por esta instância. Um número
+ * vinculado por outra instância, ou por esta entre o commit e a atualização do
+ * índice, pode ser dado como ausente; nesse caso a inserção é barrada pelo
+ * índice único {@code idx_phones_number} do banco, respondida como telefone já
+ * vinculado pelo {@code RestExceptionHandler}.
+ * </p>
+ */
+@Component
+public class PhoneNumberIndex {
+
+  @Autowired
+  private PhoneRepository phoneRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final LongHashSet numbers = new LongHashSet(1 << 16);
+
+  private volatile boolean ready;
+
+  private final Counter absentLookups;
+
+  private final Counter maybeLookups;
+
+  private final Counter falsePositives;
+
+  public PhoneNumberIndex(MeterRegistry meterRegistry) {
+    this.absentLookups = Counter.builder("phones.index.lookups")
+        .description("Consultas ao índice de telefones")
+        .tag("result", "absent")
+        .register(meterRegistry);
+    this.maybeLookups = Counter.builder("phones.index.lookups")
+        .description("Consultas ao índice de telefones")
+        .tag("result", "maybe")
+        .register(meterRegistry);
+    this.falsePositives = Counter.builder("phones.index.false.positives")
+        .description("Consultas em que o índice respondeu talvez e o banco não encontrou o número")
+        .register(meterRegistry);
+    Gauge.builder("phones.index.size", numbers, LongHashSet::size)
+        .description("Quantidade de números no índice de telefones")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Carrega o índice com todos os números cadastrados no banco.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      try (Stream<Long> stored = phoneRepository.streamAllNumberValues()) {
+        stored.forEach(numbers::add);
+      }
+    });
+    ready = true;
+  }
+
+  /**
+   * Verifica se um número pode estar cadastrado.
+   *
+   * @param number O número de telefone, já com formato válido.
+   * @return false se o número certamente não está cadastrado; true se ele pode
+   *         estar e precisa ser confirmado no banco.
+   */
+  public boolean mightContain(String number) {
+    long key = PhoneNumber.encode(number);
+    if (!ready || key == PhoneNumber.INVALID || numbers.contains(key)) {
+      maybeLookups.increment();
+      return true;
+    }
+    absentLookups.increment();
+    return false;
+  }
+
+  /**
+   * Registra que uma resposta "talvez" não foi confirmada pelo banco.
+   */
+  public void recordFalsePositive() {
+    falsePositives.increment();
+  }
+
+  /**
+   * Adiciona números recém-vinculados ao índice após o commit da transação
+   * atual, ou imediatamente se não houver transação ativa.
+   *
+   * @param phoneNumbers Os números de telefone vinculados.
+   */
+  public void addAllAfterCommit(Collection<String> phoneNumbers) {
+    afterCommit(phoneNumbers, numbers::add);
+  }
+
+  /**
+   * Remove números desvinculados do índice após o commit da transação atual,
+   * ou imediatamente se não houver transação ativa.
+   *
+   * @param phoneNumbers Os números de telefone desvinculados.
+   */
+  public void removeAllAfterCommit(Collection<String> phoneNumbers) {
+    afterCommit(phoneNumbers, numbers::remove);
+  }
+
+  private void afterCommit(Collection<String> phoneNumbers, LongConsumer action) {
+    if (phoneNumbers.isEmpty()) {
+      return;
+    }
+
+    long[] keys = phoneNumbers.stream()
+        .mapToLong(PhoneNumber::encode)
+        .filter(key -> key != PhoneNumber.INVALID)
+        .toArray();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      Arrays.stream(keys).forEach(action);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        Arrays.stream(keys).forEach(action);
+      }
+    });
+  }
+
+  /**
+   * Conjunto de {@code long} não negativos com endereçamento aberto e sondagem
+   * linear. Usa -1 como marcador de posição vazia e remoção por deslocamento,
+   * dispensando marcadores de exclusão.
+   */
+  static final class LongHashSet {
+
+    private static final long EMPTY = -1L;
+
+    private long[] table;
+
+    private int size;
+
+    LongHashSet(int initialCapacity) {
+      this.table = newTable(Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1);
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    synchronized boolean contains(long key) {
+      long[] t = table;
+      int mask = t.length - 1;
+      for (int i = slot(key, mask);; i = (i + 1) & mask) {
+        if (t[i] == key) {
+          return true;
+        }
+        if (t[i] == EMPTY) {
+          return false;
+        }
+      }
+    }
+
+    synchronized void add(long key) {
+      if ((size + 1) * 2 > table.length) {
+        resize();
+      }
+      if (insert(table, key)) {
+        size++;
+      }
+    }
+
+    synchronized void remove(long key) {
+      long[] t = table;
+      int mask = t.length - 1;
+      int i = slot(key, mask);
+      while (t[i] != key) {
+        if (t[i] == EMPTY) {
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+
+      t[i] = EMPTY;
+      size--;
+
+      // Reposiciona as entradas seguintes do mesmo agrupamento
+      for (int j = (i + 1) & mask; t[j] != EMPTY; j = (j + 1) & mask) {
+        long moved = t[j];
+        t[j] = EMPTY;
+        insert(t, moved);
+      }
+    }
+
+    private void resize() {
+      long[] old = table;
+      long[] resized = newTable(old.length << 1);
+      for (long key : old) {
+        if (key != EMPTY) {
+          insert(resized, key);
+        }
+      }
+      table = resized;
+    }
+
+    private static boolean insert(long[] t, long key) {
+      int mask = t.length - 1;
+      for (int i = slot(key, mask);; i = (i + 1) & mask) {
+        if (t[i] == key) {
+          return false;
+        }
+        if (t[i] == EMPTY) {
+          t[i] = key;
+          return true;
+        }
+      }
+    }
+
+    private static int slot(long key, int mask) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long[] newTable(int capacity) {
+      long[] t = new long[capacity];
+      Arrays.fill(t, EMPTY);
+      return t;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+-- Esquema inicial de clientes e telefones, igual ao mapeamento das entidades.
+-- Usa "if not exists" para que bancos criados pelo antigo ddl-auto=update
+-- possam adotar as migrações (spring.flyway.baseline-on-migrate).
+
+create sequence if not exists customer_seq start with 1 increment by 50;
+
+create sequence if not exists phones_seq start with 1 increment by 50;
+
+create table if not exists customer (
+    id bigint not null,
+    name varchar(255),
+    address varchar(255),
+    district varchar(255),
+    version bigint,
+    primary key (id)
+);
+
+create table if not exists phones (
+    id bigint not null,
+    number bigint,
+    customer_id bigint not null,
+    primary key (id),
+    constraint fk_phones_customer foreign key (customer_id) references customer (id) on delete cascade
+);
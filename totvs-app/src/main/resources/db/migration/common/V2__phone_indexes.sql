@@ -0,0 +1,13 @@
+-- Índices das consultas de telefones. Os índices de mesmo nome criados pelo
+-- antigo ddl-auto=update são recriados com a definição correta.
+
+-- Unicidade do número e consulta reversa por telefone (findCustomerIdByNumber,
+-- findNumbersIn, findByNumber).
+drop index if exists idx_phones_number;
+create unique index idx_phones_number on phones (number);
+
+-- Telefones de um cliente (findByCustomersId e exclusão em cascata). Com o id
+-- e o número, o índice cobre o lado dos telefones das listagens, que leem
+-- p.id e p.number ordenados por cliente e telefone.
+drop index if exists idx_phones_customer_id;
+create index idx_phones_customer_id on phones (customer_id, id, number);
@@ -0,0 +1,64 @@
+-- Bancos criados pelo antigo ddl-auto=update não receberam as etapas manuais
+-- das versões anteriores, que a V1 não faz porque só cria o que não existe:
+--   * phones.number continua varchar, e o ddl-auto=validate recusa a subida;
+--   * customer_seq e phones_seq foram criadas em 1, abaixo dos ids já
+--     gravados, e as primeiras inserções colidem na chave primária;
+--   * customer.version é nulo nos clientes antigos.
+-- Roda antes da V2, que cria o índice único de phones.number. Números
+-- inválidos ou repetidos interrompem a migração com a lista dos telefones
+-- envolvidos, para que sejam corrigidos antes; nenhum dado é apagado aqui.
+-- Só é convertido o que já está na forma canônica de PhoneNumber: 10 ou 11
+-- dígitos sem zero à esquerda. Um zero à esquerda seria descartado pela
+-- conversão para bigint, e o número gravado deixaria de ser o cadastrado.
+-- Em bancos criados pela V1 nada muda.
+do $$
+declare
+    invalid text;
+    duplicates text;
+    max_id bigint;
+    seq_last_value bigint;
+    seq_is_called boolean;
+begin
+    if (select data_type from information_schema.columns
+        where table_schema = current_schema() and table_name = 'phones' and column_name = 'number') <> 'bigint' then
+        select string_agg(format('id %s: %L', p.id, p.number), ', ' order by p.id)
+        into invalid
+        from phones p
+        where p.number !~ '^[1-9][0-9]{9,10}$';
+
+        if invalid is not null then
+            raise exception 'phones.number fora da forma canônica (10 ou 11 dígitos, sem zero à esquerda), corrija antes de migrar: %', invalid;
+        end if;
+
+        alter table phones alter column number type bigint using number::bigint;
+    end if;
+
+    select string_agg(format('%s (ids %s)', d.number, d.ids), ', ' order by d.number)
+    into duplicates
+    from (
+        select p.number, string_agg(p.id::text, ', ' order by p.id) as ids
+        from phones p
+        where p.number is not null
+        group by p.number
+        having count(*) > 1
+    ) d;
+
+    if duplicates is not null then
+        raise exception 'phones.number repetido, mantenha um telefone por número antes de migrar: %', duplicates;
+    end if;
+
+    select max(id) into max_id from customer;
+    select last_value, is_called into seq_last_value, seq_is_called from customer_seq;
+    if max_id is not null and (not seq_is_called or seq_last_value < max_id) then
+        perform setval('customer_seq', greatest(seq_last_value, max_id));
+    end if;
+
+    select max(id) into max_id from phones;
+    select last_value, is_called into seq_last_value, seq_is_called from phones_seq;
+    if max_id is not null and (not seq_is_called or seq_last_value < max_id) then
+        perform setval('phones_seq', greatest(seq_last_value, max_id));
+    end if;
+
+    update customer set version = 0 where version is null;
+end
+$$;
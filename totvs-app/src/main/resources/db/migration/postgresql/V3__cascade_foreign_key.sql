@@ -0,0 +1,27 @@
+-- Bancos criados pelo antigo ddl-auto=update têm a chave estrangeira de
+-- phones.customer_id sem "on delete cascade" e com nome gerado pelo Hibernate.
+-- Ela é substituída por fk_phones_customer, da qual a exclusão de clientes em
+-- lote depende. Em bancos criados pela V1 nada muda.
+do $$
+declare
+    constraint_name text;
+begin
+    for constraint_name in
+        select c.conname
+        from pg_constraint c
+        where c.conrelid = 'phones'::regclass
+          and c.contype = 'f'
+          and c.confdeltype <> 'c'
+    loop
+        execute format('alter table phones drop constraint %I', constraint_name);
+    end loop;
+
+    if not exists (
+        select 1 from pg_constraint c
+        where c.conrelid = 'phones'::regclass and c.conname = 'fk_phones_customer'
+    ) then
+        alter table phones add constraint fk_phones_customer
+            foreign key (customer_id) references customer (id) on delete cascade;
+    end if;
+end
+$$;
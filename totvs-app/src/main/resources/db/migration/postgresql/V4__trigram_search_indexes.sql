@@ -0,0 +1,9 @@
+-- Busca de clientes por nome no banco (CustomerRepository.searchIds): o
+-- operador % e similarity() vêm da extensão pg_trgm, e os índices GIN atendem
+-- tanto o % quanto os ILIKE de prefixo. O índice do bairro usa a mesma
+-- expressão coalesce da consulta.
+create extension if not exists pg_trgm;
+
+create index if not exists idx_customer_name_trgm on customer using gin (name gin_trgm_ops);
+
+create index if not exists idx_customer_district_trgm on customer using gin ((coalesce(district, '')) gin_trgm_ops);
@@ -0,0 +1,29 @@
+-- Busca de clientes no banco (CustomerRepository.searchIds) com as mesmas
+-- regras do índice em memória (CustomerSearchIndex.normalize): sem acentos,
+-- em minúsculas e com qualquer sequência de caracteres que não sejam letras
+-- ou dígitos trocada por um único espaço. O nome e o bairro normalizados são
+-- colunas geradas, indexadas com gin_trgm_ops para os LIKE de prefixo, de
+-- prefixo de palavra e o operador %; elas substituem os índices da V4.
+create extension if not exists unaccent;
+
+-- unaccent() não é imutável por depender do search_path; com o dicionário
+-- informado explicitamente, a função pode ser usada em colunas geradas.
+create or replace function search_normalize(text) returns text
+    language sql immutable parallel safe strict
+as $$
+    select btrim(regexp_replace(lower(public.unaccent('public.unaccent'::regdictionary, $1)), '[^[:alnum:]]+', ' ', 'g'))
+$$;
+
+alter table customer
+    add column if not exists search_name text generated always as (search_normalize(name)) stored;
+
+alter table customer
+    add column if not exists search_district text generated always as (search_normalize(coalesce(district, ''))) stored;
+
+drop index if exists idx_customer_name_trgm;
+
+drop index if exists idx_customer_district_trgm;
+
+create index if not exists idx_customer_search_name_trgm on customer using gin (search_name gin_trgm_ops);
+
+create index if not exists idx_customer_search_district_trgm on customer using gin (search_district gin_trgm_ops);
@@ -0,0 +1,110 @@
+package com.example.totvsapp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.totvsapp.TotvsAppApplication;
+import com.example.totvsapp.domain.Customers.Customers;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Mede a latência e a quantidade de instruções SQL de
+ * {@link CustomerService#insert(CustomersDTO)} para clientes com 1, 5 e 20
+ * telefones, contra o banco H2 do perfil {@code test}.
+ * <p>
+ * Ao final de cada configuração é impressa a média de instruções preparadas
+ * por inserção, obtida das estatísticas do Hibernate. Com o H2 em memória a
+ * latência não inclui a ida e volta pela rede, então a quantidade de
+ * instruções é o melhor indicador do custo em produção.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerInsertBenchmark {
+
+  @Param({ "1", "5", "20" })
+  private int phones;
+
+  private ConfigurableApplicationContext context;
+
+  private CustomerService service;
+
+  private Statistics statistics;
+
+  private long nextNumber = 11_000_000_000L;
+
+  private long inserts;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(TotvsAppApplication.class)
+        .profiles("test")
+        .web(WebApplicationType.NONE)
+        .run();
+    service = context.getBean(CustomerService.class);
+    statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Setup(Level.Iteration)
+  public void resetStatistics() {
+    statistics.clear();
+    inserts = 0;
+  }
+
+  @Benchmark
+  public Customers insert() {
+    List<String> numbers = new ArrayList<>(phones);
+    for (int i = 0; i < phones; i++) {
+      numbers.add(Long.toString(nextNumber++));
+    }
+    inserts++;
+    return service.insert(new CustomersDTO("Customer", "address", "district", numbers));
+  }
+
+  @TearDown(Level.Iteration)
+  public void printStatements() {
+    System.out.printf("%n%d telefone(s): %.2f instruções por inserção (%d inserções)%n",
+        phones, (double) statistics.getPrepareStatementCount() / inserts, inserts);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CustomerInsertBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
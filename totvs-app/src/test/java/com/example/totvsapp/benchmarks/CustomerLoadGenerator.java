@@ -0,0 +1,309 @@
+package com.example.totvsapp.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.totvsapp.TotvsAppApplication;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Gerador de carga HTTP para a API de clientes.
+ * <p>
+ * Sobe a aplicação com o perfil {@code test} (H2 em modo PostgreSQL) em uma
+ * porta aleatória, cadastra uma base inicial de clientes e dispara, a partir de
+ * vários clientes HTTP simultâneos, uma mistura configurável de inserções,
+ * consultas por ID, listagens, atualizações e exclusões em
+ * {@code /api/customers}. Ao final imprime, por operação e no total, a vazão e
+ * os percentis p50, p99 e p999 de latência medidos com HdrHistogram.
+ * </p>
+ * <p>
+ * Os argumentos são opcionais, no formato {@code chave=valor}:
+ * </p>
+ * <ul>
+ * <li>{@code clients}: clientes HTTP simultâneos (padrão 64);</li>
+ * <li>{@code duration}: duração da medição, por exemplo {@code 30s} (padrão
+ * 30s);</li>
+ * <li>{@code warmup}: duração do aquecimento, descartado (padrão 10s);</li>
+ * <li>{@code seed}: clientes cadastrados antes da carga (padrão 1000);</li>
+ * <li>{@code mix}: pesos das operações (padrão
+ * {@code insert:10,get:60,list:5,update:20,delete:5});</li>
+ * <li>{@code rate}: vazão alvo em requisições por segundo. Quando informada,
+ * as requisições seguem um agendamento fixo e a latência é medida a partir do
+ * horário agendado, de modo que atrasos do servidor não reduzem a carga
+ * oferecida (sem omissão coordenada). Sem ela, cada cliente envia a próxima
+ * requisição assim que recebe a resposta anterior.</li>
+ * </ul>
+ * <p>
+ * Qualquer outro argumento no formato {@code --propriedade=valor} é repassado
+ * à aplicação, por exemplo {@code --spring.threads.virtual.enabled=true}.
+ * </p>
+ */
+public class CustomerLoadGenerator {
+
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private enum Operation {
+    INSERT, GET, LIST, UPDATE, DELETE
+  }
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final String baseUrl;
+
+  private final Operation[] schedule;
+
+  private final IdPool ids = new IdPool();
+
+  private final AtomicLong nextPhoneNumber = new AtomicLong(11_000_000_000L);
+
+  private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+
+  private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+  private CustomerLoadGenerator(String baseUrl, Map<Operation, Integer> mix) {
+    this.baseUrl = baseUrl;
+
+    List<Operation> operations = new ArrayList<>();
+    mix.forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        operations.add(operation);
+      }
+    });
+    this.schedule = operations.toArray(Operation[]::new);
+
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new LinkedHashMap<>();
+    List<String> applicationArgs = new ArrayList<>();
+    for (String arg : args) {
+      if (arg.startsWith("--")) {
+        applicationArgs.add(arg);
+      } else {
+        String[] option = arg.split("=", 2);
+        options.put(option[0], option.length > 1 ? option[1] : "");
+      }
+    }
+
+    int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+    Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+    Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+    int seed = Integer.parseInt(options.getOrDefault("seed", "1000"));
+    double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+    Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "insert:10,get:60,list:5,update:20,delete:5"));
+
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TotvsAppApplication.class)
+        .profiles("test")
+        .properties("server.port=0", "logging.level.root=WARN")
+        .run(applicationArgs.toArray(String[]::new))) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      CustomerLoadGenerator generator = new CustomerLoadGenerator("http://localhost:" + port + "/api/customers", mix);
+      generator.seed(context.getBean(CustomerService.class), seed);
+
+      System.out.printf("%nAquecimento: %s, %d clientes%n", warmup, clients);
+      generator.run(clients, warmup, rate);
+      generator.reset();
+
+      System.out.printf("Medição: %s, %d clientes, mistura %s%s%n", duration, clients, mix,
+          rate > 0 ? String.format(", %.0f req/s", rate) : "");
+      long start = System.nanoTime();
+      generator.run(clients, duration, rate);
+      generator.report((System.nanoTime() - start) / 1e9);
+    }
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : mix.split(",")) {
+      String[] weight = entry.trim().split(":");
+      weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+    }
+    return weights;
+  }
+
+  private void seed(CustomerService service, int customers) {
+    for (int i = 0; i < customers; i++) {
+      ids.add(service.insert(newCustomer()).getId());
+    }
+  }
+
+  private void run(int clients, Duration duration, double rate) throws Exception {
+    long deadline = System.nanoTime() + duration.toNanos();
+    long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * clients / rate) : 0;
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(clients);
+      for (int c = 0; c < clients; c++) {
+        long firstRequest = System.nanoTime() + (intervalNanos * c / clients);
+        futures.add(executor.submit(() -> {
+          long intended = firstRequest;
+          while (System.nanoTime() < deadline) {
+            if (intervalNanos > 0) {
+              for (long wait; (wait = intended - System.nanoTime()) > 0;) {
+                LockSupport.parkNanos(wait);
+              }
+            } else {
+              intended = System.nanoTime();
+            }
+
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            execute(operation);
+            histograms.get(operation).recordValue(
+                Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended), HIGHEST_TRACKABLE_MICROS));
+            intended += intervalNanos;
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+  }
+
+  private void execute(Operation operation) {
+    Long id = switch (operation) {
+      case INSERT, LIST -> null;
+      case DELETE -> ids.removeRandom();
+      default -> ids.random();
+    };
+    if (id == null && operation != Operation.INSERT && operation != Operation.LIST) {
+      count(operation, "sem clientes");
+      return;
+    }
+
+    HttpRequest request = switch (operation) {
+      case INSERT -> json(HttpRequest.newBuilder(URI.create(baseUrl))).POST(body(newCustomer())).build();
+      case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+      case LIST -> HttpRequest.newBuilder(URI.create(baseUrl)).GET().build();
+      case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))).PUT(body(newCustomer())).build();
+      case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE().build();
+    };
+
+    try {
+      HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      count(operation, Integer.toString(response.statusCode()));
+      if (operation == Operation.INSERT && response.statusCode() == 200) {
+        ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+      }
+    } catch (Exception e) {
+      count(operation, e.getClass().getSimpleName());
+    }
+  }
+
+  private CustomersDTO newCustomer() {
+    long number = nextPhoneNumber.getAndAdd(2);
+    return new CustomersDTO("Customer " + number, "Rua das Flores, 100", "Centro",
+        List.of(Long.toString(number), Long.toString(number + 1)));
+  }
+
+  private static HttpRequest.Builder json(HttpRequest.Builder builder) {
+    return builder.header("Content-Type", "application/json");
+  }
+
+  private HttpRequest.BodyPublisher body(CustomersDTO customersDTO) {
+    try {
+      return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(customersDTO));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void count(Operation operation, String status) {
+    statuses.computeIfAbsent(operation.name().toLowerCase() + " " + status, key -> new LongAdder()).increment();
+  }
+
+  private void reset() {
+    histograms.values().forEach(Histogram::reset);
+    statuses.clear();
+  }
+
+  private void report(double elapsedSeconds) {
+    Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s%n",
+        "operação", "total", "req/s", "p50 ms", "p99 ms", "p999 ms", "máx ms");
+    for (Operation operation : Operation.values()) {
+      Histogram histogram = histograms.get(operation);
+      if (histogram.getTotalCount() > 0) {
+        printRow(operation.name().toLowerCase(), histogram, elapsedSeconds);
+        total.add(histogram);
+      }
+    }
+    printRow("total", total, elapsedSeconds);
+
+    System.out.printf("%nRespostas:%n");
+    statuses.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(entry -> System.out.printf("  %-30s %d%n", entry.getKey(), entry.getValue().sum()));
+  }
+
+  private static void printRow(String name, Histogram histogram, double elapsedSeconds) {
+    System.out.printf("%-8s %10d %10.0f %10.2f %10.2f %10.2f %10.2f%n",
+        name, histogram.getTotalCount(), histogram.getTotalCount() / elapsedSeconds,
+        histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+  }
+
+  /**
+   * IDs dos clientes existentes, com sorteio e remoção em tempo constante.
+   */
+  private static final class IdPool {
+
+    private final List<Long> ids = new ArrayList<>();
+
+    synchronized void add(Long id) {
+      ids.add(id);
+    }
+
+    synchronized Long random() {
+      return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    synchronized Long removeRandom() {
+      if (ids.isEmpty()) {
+        return null;
+      }
+      int index = ThreadLocalRandom.current().nextInt(ids.size());
+      Long id = ids.get(index);
+      ids.set(index, ids.get(ids.size() - 1));
+      ids.remove(ids.size() - 1);
+      return id;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.totvsapp.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.totvsapp.services.CustomerSearchIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Mede a latência da busca no {@link CustomerSearchIndex}, sem banco e sem
+ * contexto do Spring, com nomes sintéticos formados por nomes e sobrenomes
+ * brasileiros comuns, de modo que buscas amplas como {@code silva} encontram
+ * uma parte grande dos clientes.
+ * <p>
+ * O índice é carregado pelo mesmo caminho das escritas confirmadas, fora de
+ * uma transação. Cada busca pede a primeira página de 20 resultados, com e
+ * sem filtro de bairro:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.includes=CustomerSearchIndexBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CustomerSearchIndexBenchmark {
+
+  private static final String[] FIRST_NAMES = { "João", "Maria", "José", "Ana", "Antônio", "Francisca", "Carlos",
+      "Paulo", "Pedro", "Lucas", "Luiz", "Marcos", "Gabriel", "Rafael", "Daniel", "Marcelo", "Bruno", "Eduardo",
+      "Felipe", "Rodrigo", "Adriana", "Juliana", "Márcia", "Fernanda", "Patrícia", "Aline", "Sandra", "Camila",
+      "Amanda", "Bruna", "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa", "Mariana", "Gabriela", "Vera" };
+
+  private static final String[] LAST_NAMES = { "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+      "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares",
+      "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques",
+      "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira" };
+
+  private static final List<String> DISTRICTS = List.of("Centro", "Jardim América", "Vila Mariana", "Moema",
+      "Pinheiros", "Bela Vista", "Liberdade", "Mooca", "Tatuapé", "Lapa");
+
+  @Param({ "100000", "1000000" })
+  private int customers;
+
+  @Param({ "jo", "joao silv", "marcia ribeiro", "silva", "gonç", "Patricia Alm", "xyzq" })
+  private String query;
+
+  private CustomerSearchIndex index;
+
+  @Setup
+  public void setUp() {
+    index = new CustomerSearchIndex(new SimpleMeterRegistry(), true);
+    Random random = new Random(1);
+    for (long id = 1; id <= customers; id++) {
+      String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+          + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+          + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + Long.toString(id, 36);
+      index.putAfterCommit(id, name, DISTRICTS.get(random.nextInt(DISTRICTS.size())));
+    }
+  }
+
+  @Benchmark
+  public List<Long> search() {
+    return index.search(query, null, 0, 21);
+  }
+
+  @Benchmark
+  public List<Long> searchInDistrict() {
+    return index.search(query, "centro", 0, 21);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CustomerSearchIndexBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,140 @@
+package com.example.totvsapp.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.totvsapp.TotvsAppApplication;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Compara o modo de execução com threads de plataforma (pool do Tomcat) e com
+ * threads virtuais, sob muitos clientes concorrentes.
+ * <p>
+ * Para cada modo, sobe a aplicação com o perfil {@code test} em uma porta
+ * aleatória, com o cache de clientes desligado para que toda requisição acesse
+ * o banco, e dispara {@code GET /api/customers/{id}} a partir de 1000 clientes
+ * simultâneos. Ao final imprime p50, p99, vazão e quantidade de respostas com
+ * erro (incluindo 503 por falta de permissão do
+ * {@code DatabasePermitDataSource}).
+ * </p>
+ * <p>
+ * Argumentos opcionais: quantidade de clientes concorrentes e de requisições
+ * por cliente.
+ * </p>
+ */
+public class ExecutionModeBenchmark {
+
+  private static final int CUSTOMERS = 1000;
+
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    System.setProperty("spring.devtools.restart.enabled", "false");
+
+    for (boolean virtualThreads : new boolean[] { false, true }) {
+      run(virtualThreads, clients, requestsPerClient);
+    }
+  }
+
+  private static void run(boolean virtualThreads, int clients, int requestsPerClient) throws Exception {
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TotvsAppApplication.class)
+        .profiles("test")
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "totvs.cache.customers.maximum-size=0",
+            "logging.level.root=WARN")
+        .run()) {
+      List<Long> ids = seed(context.getBean(CustomerService.class));
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      String baseUrl = "http://localhost:" + port + "/api/customers/";
+
+      HttpClient client = HttpClient.newBuilder()
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+
+      // Aquecimento
+      execute(client, baseUrl, ids, Math.min(clients, 100), 20);
+
+      long start = System.nanoTime();
+      Result result = execute(client, baseUrl, ids, clients, requestsPerClient);
+      double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+      long[] latencies = result.latencies();
+      Arrays.sort(latencies);
+      System.out.printf("%n%s: %d requisições, %d erros | p50 %.2f ms | p99 %.2f ms | %.0f req/s%n",
+          virtualThreads ? "threads virtuais" : "threads de plataforma",
+          latencies.length, result.errors(),
+          percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+          latencies.length / elapsedSeconds);
+    }
+  }
+
+  private static List<Long> seed(CustomerService service) {
+    List<Long> ids = new ArrayList<>(CUSTOMERS);
+    long number = 11_000_000_000L;
+    for (int i = 0; i < CUSTOMERS; i++) {
+      ids.add(service.insert(new CustomersDTO("Customer " + i, "address", "district",
+          List.of(Long.toString(number++), Long.toString(number++)))).getId());
+    }
+    return ids;
+  }
+
+  private static Result execute(HttpClient client, String baseUrl, List<Long> ids, int clients,
+      int requestsPerClient) throws Exception {
+    long[] latencies = new long[clients * requestsPerClient];
+    AtomicInteger errors = new AtomicInteger();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> futures = new ArrayList<>(clients);
+      for (int c = 0; c < clients; c++) {
+        int clientIndex = c;
+        futures.add(executor.submit(() -> {
+          for (int r = 0; r < requestsPerClient; r++) {
+            int slot = clientIndex * requestsPerClient + r;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ids.get(slot % ids.size()))).build();
+            long begin = System.nanoTime();
+            try {
+              HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+              if (response.statusCode() != 200) {
+                errors.incrementAndGet();
+              }
+            } catch (Exception e) {
+              errors.incrementAndGet();
+            }
+            latencies[slot] = System.nanoTime() - begin;
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+
+    return new Result(latencies, errors.get());
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+  }
+
+  private record Result(long[] latencies, int errors) {
+  }
+}
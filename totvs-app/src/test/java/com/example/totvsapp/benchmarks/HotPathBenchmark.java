@@ -0,0 +1,163 @@
+package com.example.totvsapp.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.totvsapp.domain.Customers.Customers;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.domain.Phones.Phones;
+import com.example.totvsapp.repositories.PhoneRepository;
+import com.example.totvsapp.services.CustomerService;
+import com.example.totvsapp.services.PhoneNumberIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Mede latência e alocação dos trechos executados em toda requisição de
+ * inserção e consulta de clientes, sem banco e sem contexto do Spring:
+ * <ul>
+ * <li>a validação dos telefones em {@link CustomerService} (normalização e
+ * verificação de vínculo), com o índice de telefones carregado e vazio, de modo
+ * que nenhuma consulta ao repositório é feita;</li>
+ * <li>o construtor {@link Customers#Customers(CustomersDTO)}, que cria as
+ * entidades de telefone;</li>
+ * <li>o {@code createPhoneEntities} de {@link CustomerService};</li>
+ * <li>a serialização de um cliente pelo Jackson, com o mesmo
+ * {@link ObjectMapper} padrão do Spring Boot.</li>
+ * </ul>
+ * <p>
+ * Os métodos privados do serviço são chamados por {@link MethodHandle}, sem
+ * alterar sua visibilidade. Para obter as taxas de alocação, execute com
+ * {@code -prof gc}, como faz o perfil {@code jmh} do Maven:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.includes=HotPathBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotPathBenchmark {
+
+  private static final MethodHandle NORMALIZE_PHONES;
+
+  private static final MethodHandle VALIDATE_PHONES;
+
+  private static final MethodHandle CREATE_PHONE_ENTITIES;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(CustomerService.class, MethodHandles.lookup());
+      NORMALIZE_PHONES = lookup.findVirtual(CustomerService.class, "normalizePhones",
+          MethodType.methodType(CustomersDTO.class, CustomersDTO.class));
+      VALIDATE_PHONES = lookup.findVirtual(CustomerService.class, "validatePhones",
+          MethodType.methodType(void.class, Collection.class));
+      CREATE_PHONE_ENTITIES = lookup.findVirtual(CustomerService.class, "createPhoneEntities",
+          MethodType.methodType(List.class, Customers.class, List.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  @Param({ "1", "10", "50" })
+  private int phones;
+
+  private CustomerService service;
+
+  private ObjectMapper objectMapper;
+
+  private CustomersDTO formattedDTO;
+
+  private CustomersDTO normalizedDTO;
+
+  private Customers customer;
+
+  @Setup
+  public void setUp() {
+    PhoneNumberIndex phoneNumberIndex = new PhoneNumberIndex(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(phoneNumberIndex, "ready", true);
+
+    service = new CustomerService();
+    ReflectionTestUtils.setField(service, "phoneRepository", Mockito.mock(PhoneRepository.class));
+    ReflectionTestUtils.setField(service, "phoneNumberIndex", phoneNumberIndex);
+
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    List<String> formatted = new ArrayList<>(phones);
+    List<String> normalized = new ArrayList<>(phones);
+    for (int i = 0; i < phones; i++) {
+      String number = Long.toString(11_900_000_000L + i);
+      formatted.add("(" + number.substring(0, 2) + ") " + number.substring(2, 7) + "-" + number.substring(7));
+      normalized.add(number);
+    }
+    formattedDTO = new CustomersDTO("Customer", "Rua das Flores, 100", "Centro", formatted);
+    normalizedDTO = new CustomersDTO("Customer", "Rua das Flores, 100", "Centro", normalized);
+
+    customer = new Customers(normalizedDTO);
+    customer.setId(1L);
+    customer.setVersion(0L);
+    long phoneId = 1;
+    for (Phones phone : customer.getPhones()) {
+      phone.setId(phoneId++);
+    }
+  }
+
+  @Benchmark
+  public CustomersDTO validatePhones() throws Throwable {
+    CustomersDTO dto = (CustomersDTO) NORMALIZE_PHONES.invokeExact(service, formattedDTO);
+    VALIDATE_PHONES.invokeExact(service, (Collection<String>) dto.phones());
+    return dto;
+  }
+
+  @Benchmark
+  public Customers newCustomer() {
+    return new Customers(normalizedDTO);
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public List<Phones> serviceCreatePhoneEntities() throws Throwable {
+    return (List<Phones>) CREATE_PHONE_ENTITIES.invokeExact(service, customer, normalizedDTO.phones());
+  }
+
+  @Benchmark
+  public byte[] serializeCustomer() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(customer);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(HotPathBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build()).run();
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.totvsapp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.totvsapp.TotvsAppApplication;
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Mede a distribuição de latência de
+ * {@link CustomerService#getCustomerByPhone(String)} com os caches quentes,
+ * contra o banco H2 do perfil {@code test}.
+ * <p>
+ * São cadastrados {@value #CUSTOMERS} clientes e as consultas percorrem os
+ * números formatados de todos eles, que cabem nos caches. No modo
+ * {@code SampleTime} o JMH informa os percentis, inclusive o p99:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.includes=PhoneLookupBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhoneLookupBenchmark {
+
+  private static final int CUSTOMERS = 1000;
+
+  private ConfigurableApplicationContext context;
+
+  private CustomerService service;
+
+  private String[] numbers;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(TotvsAppApplication.class)
+        .profiles("test")
+        .web(WebApplicationType.NONE)
+        .run();
+    service = context.getBean(CustomerService.class);
+
+    List<CustomersDTO> customers = new ArrayList<>(CUSTOMERS);
+    numbers = new String[CUSTOMERS];
+    for (int i = 0; i < CUSTOMERS; i++) {
+      String number = Long.toString(11_900_000_000L + i);
+      numbers[i] = "(" + number.substring(0, 2) + ") " + number.substring(2, 7) + "-" + number.substring(7);
+      customers.add(new CustomersDTO("Customer " + i, "Rua das Flores, " + i, "Centro", List.of(number)));
+    }
+    service.insertAll(customers);
+    for (String number : numbers) {
+      service.getCustomerByPhone(number);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CustomerView lookup() {
+    String number = numbers[next];
+    next = next + 1 == numbers.length ? 0 : next + 1;
+    return service.getCustomerByPhone(number);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(PhoneLookupBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build()).run();
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.totvsapp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.totvsapp.domain.Phones.PhoneNumber;
+
+/**
+ * Compara a validação de telefones por expressão regular
+ * ({@code String.matches}, que compila o padrão a cada chamada) com o
+ * normalizador de passagem única de {@link PhoneNumber}.
+ * <p>
+ * Execute com {@code -prof gc} para comparar também a alocação por operação.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhoneNumberBenchmark {
+
+  @Param({ "11987654321", "(11) 98765-4321", "123456a8910" })
+  private String input;
+
+  @Benchmark
+  public boolean regexMatches() {
+    return input.matches("\\d{10,11}");
+  }
+
+  @Benchmark
+  public long phoneNumberEncode() {
+    return PhoneNumber.encode(input);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(PhoneNumberBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,142 @@
+package com.example.totvsapp.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.totvsapp.TotvsAppApplication;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Mede a vazão de requisições rejeitadas por regra de negócio, de ponta a
+ * ponta pelo HTTP, com a aplicação no perfil {@code test}:
+ * <ul>
+ * <li>{@code format}: inserção com telefone em formato inválido;</li>
+ * <li>{@code linked}: inserção com telefone já vinculado a outro cliente;</li>
+ * <li>{@code notFound}: atualização de um cliente inexistente.</li>
+ * </ul>
+ * <p>
+ * {@code reject} envia a requisição pelo HTTP; o log fica no nível WARN, de
+ * modo que erros registrados pelo servidor entram na medição, como em
+ * produção. {@code rejectInService} chama o {@link CustomerService} pelo proxy
+ * transacional, sem rede, e isola o custo da exceção e da transação desfeita.
+ * O status da primeira resposta de cada caso é impresso na preparação:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.includes=RejectedRequestBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectedRequestBenchmark {
+
+  private static final String LINKED_PHONE = "11900000001";
+
+  @Param({ "format", "linked", "notFound" })
+  private String error;
+
+  private ConfigurableApplicationContext context;
+
+  private HttpClient client;
+
+  private HttpRequest request;
+
+  private Runnable serviceCall;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, InterruptedException {
+    context = new SpringApplicationBuilder(TotvsAppApplication.class)
+        .profiles("test")
+        .properties("server.port=0", "logging.level.root=WARN")
+        .run();
+    CustomerService service = context.getBean(CustomerService.class);
+    service.insert(new CustomersDTO("Customer", "Rua das Flores, 100", "Centro", List.of(LINKED_PHONE)));
+
+    String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+        + "/api/customers";
+    request = switch (error) {
+      case "format" -> json(HttpRequest.newBuilder(URI.create(base)), "abc", "POST");
+      case "linked" -> json(HttpRequest.newBuilder(URI.create(base)), LINKED_PHONE, "POST");
+      case "notFound" -> json(HttpRequest.newBuilder(URI.create(base + "/999999")), "11900000002", "PUT");
+      default -> throw new IllegalArgumentException(error);
+    };
+    serviceCall = switch (error) {
+      case "format" -> () -> service.insert(dto("abc"));
+      case "linked" -> () -> service.insert(dto(LINKED_PHONE));
+      default -> () -> service.update(999999L, dto("11900000002"), null);
+    };
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    System.out.printf("%n%s: %d %s%n", error, response.statusCode(), response.body());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int reject() throws IOException, InterruptedException {
+    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  @Benchmark
+  public RuntimeException rejectInService() {
+    try {
+      serviceCall.run();
+    } catch (RuntimeException e) {
+      return e;
+    }
+    throw new IllegalStateException("A chamada deveria ter sido rejeitada");
+  }
+
+  private static CustomersDTO dto(String phone) {
+    return new CustomersDTO("Customer", "Rua das Flores, 100", "Centro", List.of(phone));
+  }
+
+  private static HttpRequest json(HttpRequest.Builder builder, String phone, String method) {
+    String body = "{\"name\":\"Customer\",\"address\":\"Rua das Flores, 100\",\"district\":\"Centro\","
+        + "\"phones\":[\"" + phone + "\"]}";
+    return builder.header("Content-Type", "application/json")
+        .method(method, HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(RejectedRequestBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build()).run();
+  }
+}
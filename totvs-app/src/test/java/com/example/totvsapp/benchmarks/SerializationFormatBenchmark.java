@@ -0,0 +1,112 @@
+package com.example.totvsapp.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.domain.Phones.PhoneView;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Compara JSON, CBOR e Smile na serialização e na desserialização de listas
+ * de clientes, como as respondidas por {@code GET /api/customers}.
+ * <p>
+ * Cada cliente tem três telefones. Os {@link ObjectMapper} são criados pelo
+ * {@link Jackson2ObjectMapperBuilder}, como nos conversores HTTP da aplicação.
+ * O tamanho da carga de cada formato é impresso na preparação de cada
+ * combinação de parâmetros:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh verify -Djmh.includes=SerializationFormatBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SerializationFormatBenchmark {
+
+  @Param({ "json", "cbor", "smile" })
+  private String format;
+
+  @Param({ "1000", "100000" })
+  private int customers;
+
+  private ObjectWriter writer;
+
+  private ObjectReader reader;
+
+  private List<CustomerView> list;
+
+  private byte[] payload;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = switch (format) {
+      case "json" -> Jackson2ObjectMapperBuilder.json().build();
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+      case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+      default -> throw new IllegalArgumentException(format);
+    };
+    writer = objectMapper.writerFor(new TypeReference<List<CustomerView>>() {
+    });
+    reader = objectMapper.readerFor(new TypeReference<List<CustomerView>>() {
+    });
+
+    list = new ArrayList<>(customers);
+    long phone = 11_900_000_000L;
+    long phoneId = 1;
+    for (int i = 1; i <= customers; i++) {
+      List<PhoneView> phones = List.of(
+          new PhoneView(phoneId++, Long.toString(phone++)),
+          new PhoneView(phoneId++, Long.toString(phone++)),
+          new PhoneView(phoneId++, Long.toString(phone++)));
+      list.add(new CustomerView((long) i, "Customer " + i, "Rua das Flores, " + i, "Centro", (long) (i % 7), phones));
+    }
+
+    payload = writer.writeValueAsBytes(list);
+    System.out.printf("%n%s, %d clientes: %d bytes (%.1f bytes por cliente)%n",
+        format, customers, payload.length, (double) payload.length / customers);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return writer.writeValueAsBytes(list);
+  }
+
+  @Benchmark
+  public List<CustomerView> deserialize() throws IOException {
+    return reader.readValue(payload);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(SerializationFormatBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build()).run();
+  }
+}
@@ -0,0 +1,207 @@
+package com.example.totvsapp.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Mede o tempo de inicialização da aplicação empacotada: o tempo entre o
+ * início do processo {@code java} e a primeira resposta 200 de
+ * {@code GET /api/customers}.
+ * <p>
+ * Usa o jar fino gerado pelo perfil {@code fast-startup}, com as dependências
+ * em {@code target/lib}, e compara os modos:
+ * </p>
+ * <ul>
+ * <li>{@code plain}: sem AOT e sem CDS;</li>
+ * <li>{@code aot}: com {@code -Dspring.aot.enabled=true};</li>
+ * <li>{@code cds}: com um arquivo CDS gerado por uma execução de treino;</li>
+ * <li>{@code aot+cds}: com os dois.</li>
+ * </ul>
+ * <p>
+ * Para os modos com CDS, uma execução de treino com o perfil {@code training}
+ * e {@code -Dspring.context.exit=onRefresh} gera antes o arquivo
+ * {@code target/startup-<modo>.jsa}, como faz o Dockerfile. Os argumentos são
+ * opcionais, no formato {@code chave=valor}:
+ * </p>
+ * <ul>
+ * <li>{@code jar}: o jar fino (padrão
+ * {@code target/totvs-app-0.0.1-SNAPSHOT.jar});</li>
+ * <li>{@code runs}: inicializações medidas por modo (padrão 5);</li>
+ * <li>{@code modes}: os modos, separados por vírgula (padrão todos);</li>
+ * <li>{@code classpath}: entradas adicionais de classpath, por exemplo o jar
+ * do driver H2;</li>
+ * <li>{@code port}: a porta HTTP (padrão 18080);</li>
+ * <li>{@code timeout}: tempo máximo de cada inicialização (padrão 120s).</li>
+ * </ul>
+ * <p>
+ * Qualquer outro argumento no formato {@code --propriedade=valor} é repassado
+ * à aplicação, por exemplo o banco de dados:
+ * </p>
+ *
+ * <pre>
+ * mvn -Pfast-startup package
+ * java -cp target/test-classes:... com.example.totvsapp.benchmarks.StartupBenchmark \
+ *     classpath=h2.jar --spring.datasource.url=jdbc:h2:mem:startup \
+ *     --spring.datasource.driver-class-name=org.h2.Driver \
+ *     --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+ * </pre>
+ */
+public class StartupBenchmark {
+
+  private static final String AOT = "-Dspring.aot.enabled=true";
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofMillis(200))
+      .build();
+
+  private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+  private final String classpath;
+
+  private final int port;
+
+  private final Duration timeout;
+
+  private final List<String> applicationArgs;
+
+  private StartupBenchmark(String classpath, int port, Duration timeout, List<String> applicationArgs) {
+    this.classpath = classpath;
+    this.port = port;
+    this.timeout = timeout;
+    this.applicationArgs = applicationArgs;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new LinkedHashMap<>();
+    List<String> applicationArgs = new ArrayList<>();
+    for (String arg : args) {
+      if (arg.startsWith("--")) {
+        applicationArgs.add(arg);
+      } else {
+        String[] option = arg.split("=", 2);
+        options.put(option[0], option.length > 1 ? option[1] : "");
+      }
+    }
+
+    String jar = options.getOrDefault("jar", "target/totvs-app-0.0.1-SNAPSHOT.jar");
+    int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+    List<String> modes = Arrays.asList(options.getOrDefault("modes", "plain,aot,cds,aot+cds").split(","));
+    String extraClasspath = options.getOrDefault("classpath", "");
+    int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+    Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "120s"));
+
+    String classpath = extraClasspath.isEmpty() ? jar : jar + File.pathSeparator + extraClasspath;
+    StartupBenchmark benchmark = new StartupBenchmark(classpath, port, timeout, applicationArgs);
+
+    Map<String, long[]> results = new LinkedHashMap<>();
+    for (String mode : modes) {
+      List<String> jvmArgs = new ArrayList<>();
+      if (mode.contains("aot")) {
+        jvmArgs.add(AOT);
+      }
+      if (mode.contains("cds")) {
+        Path archive = Path.of("target", "startup-" + mode.replace('+', '-') + ".jsa");
+        Files.deleteIfExists(archive);
+        benchmark.train(jvmArgs, archive);
+        jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+      }
+
+      long[] millis = new long[runs];
+      for (int i = 0; i < runs; i++) {
+        millis[i] = benchmark.timeToFirstResponse(jvmArgs, Path.of("target", "startup-" + mode.replace('+', '-') + ".log"));
+        System.out.printf("%-8s execução %d: %d ms%n", mode, i + 1, millis[i]);
+      }
+      Arrays.sort(millis);
+      results.put(mode, millis);
+    }
+
+    System.out.printf("%nTempo até o primeiro GET /api/customers com sucesso (%d execuções)%n", runs);
+    System.out.printf("%-8s %10s %10s %10s%n", "modo", "min ms", "p50 ms", "max ms");
+    results.forEach((mode, millis) -> System.out.printf("%-8s %10d %10d %10d%n",
+        mode, millis[0], millis[millis.length / 2], millis[millis.length - 1]));
+  }
+
+  /**
+   * Executa o treino do CDS: a aplicação sobe até o fim do refresh do contexto
+   * com o perfil {@code training} e, ao sair, grava as classes carregadas no
+   * arquivo informado.
+   */
+  private void train(List<String> jvmArgs, Path archive) throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>(jvmArgs);
+    command.add("-XX:ArchiveClassesAtExit=" + archive);
+    command.add("-Dspring.context.exit=onRefresh");
+    command.add("-Dspring.profiles.active=training");
+
+    Process process = start(command, Path.of("target", "startup-training.log"));
+    if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Falha no treino do CDS; veja target/startup-training.log");
+    }
+  }
+
+  /**
+   * Inicia a aplicação e mede o tempo até a primeira resposta 200 de
+   * {@code GET /api/customers}, encerrando o processo em seguida.
+   */
+  private long timeToFirstResponse(List<String> jvmArgs, Path log) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/customers"))
+        .timeout(Duration.ofSeconds(5))
+        .build();
+
+    long start = System.nanoTime();
+    Process process = start(jvmArgs, log);
+    try {
+      long deadline = start + timeout.toNanos();
+      while (System.nanoTime() < deadline) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("A aplicação terminou durante a inicialização; veja " + log);
+        }
+        try {
+          if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          }
+        } catch (IOException e) {
+          // A porta ainda não está aberta
+        }
+        Thread.sleep(10);
+      }
+      throw new IllegalStateException("A aplicação não respondeu em " + timeout + "; veja " + log);
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly().waitFor();
+      }
+    }
+  }
+
+  private Process start(List<String> jvmArgs, Path log) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(java);
+    command.addAll(jvmArgs);
+    command.add("-cp");
+    command.add(classpath);
+    command.add("com.example.totvsapp.TotvsAppApplication");
+    command.add("--server.port=" + port);
+    command.addAll(applicationArgs);
+
+    return new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(log.toFile())
+        .start();
+  }
+}
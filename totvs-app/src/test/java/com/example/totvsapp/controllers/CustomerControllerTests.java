@@ -0,0 +1,236 @@
+package com.example.totvsapp.controllers;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.repositories.CustomerRepository;
+import com.example.totvsapp.services.CustomerChangeFeed;
+import com.example.totvsapp.services.CustomerSearchIndex;
+import com.example.totvsapp.services.CustomerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Testes das ETags e das requisições condicionais do
+ * {@link CustomerController}, executados contra o banco H2 do perfil
+ * {@code test}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CustomerControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
+	@Autowired
+	private CustomerChangeFeed customerChangeFeed;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+		customerSearchIndex.load();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		ids.clear();
+		for (int i = 0; i < 4; i++) {
+			ids.add(service.insert(new CustomersDTO("Customer " + i, "address", "district",
+					List.of(String.valueOf(11933330000L + i)))).getId());
+		}
+	}
+
+	/**
+	 * Teste para verificar que a página da listagem traz uma ETag própria,
+	 * calculada sem a agregação sobre a tabela inteira, que responde 304 ao
+	 * If-None-Match e muda somente quando um cliente da própria página muda.
+	 */
+	@Test
+	void givenPage_WhenGetAll_ShouldUsePageETagWithoutListAggregate() throws Exception {
+		statistics.clear();
+		final String firstPage = mockMvc.perform(get("/api/customers").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(firstPage);
+		assertFalse(List.of(statistics.getQueries()).stream().anyMatch(query -> query.contains("sum(")),
+				List.of(statistics.getQueries()).toString());
+
+		mockMvc.perform(get("/api/customers").param("limit", "2").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+				.andExpect(status().isNotModified());
+
+		service.update(ids.get(3), new CustomersDTO("Renamed", "address", "district", List.of("11933330003")));
+		mockMvc.perform(get("/api/customers").param("limit", "2").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+				.andExpect(status().isNotModified());
+
+		service.update(ids.get(0), new CustomersDTO("Renamed", "address", "district", List.of("11933330000")));
+		final String changed = mockMvc.perform(get("/api/customers").param("limit", "2")
+				.header(HttpHeaders.IF_NONE_MATCH, firstPage))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(firstPage, changed);
+	}
+
+	/**
+	 * Teste para verificar que JSON, CBOR e Smile do mesmo cliente têm ETags
+	 * diferentes, de modo que um cache não responda 304 com o corpo de outro
+	 * formato, e que a ETag de qualquer formato vale no If-Match.
+	 */
+	@Test
+	void givenFormats_WhenGetCustomerById_ShouldTagEachRepresentation() throws Exception {
+		final Long id = ids.get(0);
+		final String json = mockMvc.perform(get("/api/customers/{id}", id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		final String cbor = mockMvc.perform(get("/api/customers/{id}", id).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		final String smile = mockMvc.perform(get("/api/customers/{id}", id)
+				.accept(MediaType.parseMediaType("application/x-jackson-smile")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertEquals(3, Set.of(json, cbor, smile).size());
+		mockMvc.perform(get("/api/customers/{id}", id).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/customers/{id}", id).accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, cbor))
+				.andExpect(status().isNotModified());
+		final String jsonList = mockMvc.perform(get("/api/customers"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/api/customers").accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, jsonList))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(put("/api/customers/{id}", id)
+				.header(HttpHeaders.IF_MATCH, cbor)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"name": "Renamed", "address": "address", "district": "district", "phones": ["11933330000"]}
+						"""))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/customers/{id}", id)
+				.header(HttpHeaders.IF_MATCH, cbor)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"name": "Renamed again", "address": "address", "district": "district", "phones": ["11933330000"]}
+						"""))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	/**
+	 * Teste para verificar que o corpo da requisição e da resposta seguem os
+	 * cabeçalhos Content-Type e Accept, em CBOR e Smile, e que a resposta
+	 * informa que varia conforme o Accept.
+	 */
+	@Test
+	void givenBinaryFormats_WhenPostAndGet_ShouldNegotiateContentType() throws Exception {
+		final CBORMapper cbor = new CBORMapper();
+		final byte[] body = cbor.writeValueAsBytes(
+				new CustomersDTO("Binary", "address", "district", List.of("11933339999")));
+
+		final MvcResult created = mockMvc.perform(post("/api/customers")
+				.contentType(MediaType.APPLICATION_CBOR)
+				.accept(MediaType.APPLICATION_CBOR)
+				.content(body))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn();
+		final JsonNode customer = cbor.readTree(created.getResponse().getContentAsByteArray());
+		assertEquals("Binary", customer.get("name").asText());
+
+		mockMvc.perform(get("/api/customers").accept(MediaType.parseMediaType("application/x-jackson-smile")))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-jackson-smile"))
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+		mockMvc.perform(get("/api/customers/{id}", -1L).accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isNotFound());
+	}
+
+	/**
+	 * Teste para verificar que o feed de alterações entrega, a quem reconecta
+	 * com o {@code Last-Event-ID}, os eventos perdidos, e um evento
+	 * {@code reset} a quem informa um ID desconhecido, em conexões sem o tempo
+	 * limite das demais respostas assíncronas.
+	 */
+	@Test
+	void givenLastEventId_WhenSubscribeToChanges_ShouldResumeOrReset() throws Exception {
+		final long start = customerChangeFeed.latestSequence();
+		service.update(ids.get(0), new CustomersDTO("Renamed", "address", "district", List.of("11933330000")));
+		service.delete(ids.get(1));
+
+		final MvcResult resumed = mockMvc.perform(get("/api/customers/changes")
+				.header("Last-Event-ID", Long.toString(start)))
+				.andExpect(status().isOk())
+				.andReturn();
+		assertEquals(0L, resumed.getRequest().getAsyncContext().getTimeout());
+		final String events = awaitContent(resumed, "id:" + (start + 2));
+		assertTrue(events.contains("id:" + (start + 1)), events);
+		assertTrue(events.contains("\"type\":\"DELETED\""), events);
+
+		final MvcResult reset = mockMvc.perform(get("/api/customers/changes").header("Last-Event-ID", "42"))
+				.andExpect(status().isOk())
+				.andReturn();
+		assertTrue(awaitContent(reset, "event:" + CustomerChangeFeed.RESET_EVENT).contains("id:" + (start + 2)));
+	}
+
+	/**
+	 * Aguarda, por até cinco segundos, que a resposta em streaming contenha o
+	 * texto informado.
+	 */
+	private static String awaitContent(MvcResult result, String expected) throws Exception {
+		final long deadline = System.nanoTime() + 5_000_000_000L;
+		String content = result.getResponse().getContentAsString();
+		while (!content.contains(expected) && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+			content = result.getResponse().getContentAsString();
+		}
+		assertTrue(content.contains(expected), content);
+		return content;
+	}
+}
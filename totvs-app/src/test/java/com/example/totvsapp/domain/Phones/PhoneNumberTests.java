@@ -0,0 +1,38 @@
+package com.example.totvsapp.domain.Phones;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários da normalização e codificação de {@link PhoneNumber}.
+ */
+class PhoneNumberTests {
+
+	/**
+	 * Teste para verificar que números formatados são normalizados para a forma
+	 * canônica e codificados sem perda de dígitos.
+	 */
+	@Test
+	void givenFormattedPhone_WhenNormalize_ShouldKeepOnlyDigits() {
+		assertEquals("11987654321", PhoneNumber.normalize("(11) 98765-4321"));
+		assertEquals("1134567890", PhoneNumber.normalize("11 3456.7890"));
+		assertEquals("12345678910", PhoneNumber.normalize("12345678910"));
+		assertEquals(11987654321L, PhoneNumber.encode("11987654321"));
+	}
+
+	/**
+	 * Teste para verificar que entradas com caracteres inválidos, quantidade
+	 * incorreta de dígitos ou zero à esquerda são rejeitadas.
+	 */
+	@Test
+	void givenInvalidPhone_WhenEncode_ShouldReturnInvalid() {
+		assertEquals(PhoneNumber.INVALID, PhoneNumber.encode("123456a8910"));
+		assertEquals(PhoneNumber.INVALID, PhoneNumber.encode("123456789"));
+		assertEquals(PhoneNumber.INVALID, PhoneNumber.encode("119876543210"));
+		assertEquals(PhoneNumber.INVALID, PhoneNumber.encode("01198765432"));
+		assertEquals(PhoneNumber.INVALID, PhoneNumber.encode(""));
+		assertNull(PhoneNumber.normalize(null));
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.totvsapp.infra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários do ajuste AIMD de {@link AdaptiveConcurrencyLimit}.
+ */
+class AdaptiveConcurrencyLimitTests {
+
+	private static final long FAST = Duration.ofMillis(10).toNanos();
+
+	private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+	/**
+	 * Teste para verificar que as requisições acima do limite são rejeitadas e
+	 * que a liberação de uma vaga permite uma nova requisição.
+	 */
+	@Test
+	void givenFullLimit_WhenAcquire_ShouldRejectUntilRelease() {
+		final var limit = new AdaptiveConcurrencyLimit(3, 1, 10, Duration.ofMillis(100));
+
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+		assertEquals(3, limit.inFlight());
+
+		limit.releaseWithoutSample();
+		assertTrue(limit.tryAcquire());
+	}
+
+	/**
+	 * Teste para verificar que respostas lentas reduzem o limite uma única vez
+	 * por janela e que respostas rápidas, com o limite em uso, o aumentam de
+	 * volta até o máximo.
+	 * <p>
+	 * Cenário: Dado um limite de 10 totalmente ocupado, quando todas as
+	 * requisições, iniciadas ao mesmo tempo, terminam lentas, o limite cai
+	 * apenas para 9; uma requisição lenta iniciada depois da redução o reduz
+	 * para 8; em seguida, requisições rápidas o levam ao máximo de 12.
+	 * </p>
+	 */
+	@Test
+	void givenLatency_WhenRelease_ShouldDecreaseOncePerWindowAndRecover() {
+		final var limit = new AdaptiveConcurrencyLimit(10, 2, 12, Duration.ofMillis(100));
+
+		for (int i = 0; i < 10; i++) {
+			limit.tryAcquire();
+		}
+		for (int i = 0; i < 10; i++) {
+			limit.release(0, SLOW, false);
+		}
+		assertEquals(9, limit.limit());
+
+		limit.tryAcquire();
+		limit.release(SLOW + 1, 2 * SLOW + 1, false);
+		assertEquals(8, limit.limit());
+
+		long now = 3 * SLOW;
+		for (int i = 0; i < 100; i++) {
+			int acquired = 0;
+			while (limit.tryAcquire()) {
+				acquired++;
+			}
+			for (int j = 0; j < acquired; j++) {
+				limit.release(now, now + FAST, false);
+			}
+			now += FAST;
+		}
+		assertEquals(12, limit.limit());
+		assertEquals(0, limit.inFlight());
+	}
+
+	/**
+	 * Teste para verificar que respostas com erro reduzem o limite mesmo quando
+	 * rápidas, sem ficar abaixo do mínimo.
+	 */
+	@Test
+	void givenFailures_WhenRelease_ShouldNotGoBelowMinimum() {
+		final var limit = new AdaptiveConcurrencyLimit(3, 2, 10, Duration.ofMillis(100));
+
+		long now = 0;
+		for (int i = 0; i < 10; i++) {
+			limit.tryAcquire();
+			limit.release(now, now + FAST, true);
+			now += SLOW;
+		}
+		assertEquals(2, limit.limit());
+	}
+}
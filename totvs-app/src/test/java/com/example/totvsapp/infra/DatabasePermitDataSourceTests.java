@@ -0,0 +1,113 @@
+package com.example.totvsapp.infra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.repositories.CustomerRepository;
+import com.example.totvsapp.services.CustomerService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Testes das permissões de acesso ao banco do
+ * {@link DatabasePermitDataSource}, com threads virtuais habilitadas e um pool
+ * de duas conexões.
+ */
+@SpringBootTest(properties = {
+		"spring.threads.virtual.enabled=true",
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"totvs.db-permits.acquire-timeout=100ms" })
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DatabasePermitDataSourceTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+	}
+
+	/**
+	 * Teste para verificar que as permissões acompanham as conexões em uso, e
+	 * não as requisições: com todas as conexões ocupadas, uma consulta atendida
+	 * pelo cache responde normalmente, enquanto uma que precisa do banco recebe
+	 * 503 com {@code Retry-After}; fechar a mesma conexão duas vezes devolve uma
+	 * única permissão.
+	 */
+	@Test
+	void givenAllConnectionsInUse_WhenRequest_ShouldAnswerCacheHitsAndRejectDatabaseAccess() throws Exception {
+		service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11922220001")));
+		mockMvc.perform(get("/api/phones/{number}", "11922220001")).andExpect(status().isOk());
+
+		try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+			assertEquals(0, availablePermits());
+
+			mockMvc.perform(get("/api/phones/{number}", "11922220001")).andExpect(status().isOk());
+			mockMvc.perform(get("/api/customers"))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+					.andExpect(jsonPath("$.type").value("urn:totvs-app:problem:database-busy"));
+
+			first.close();
+			first.close();
+			assertEquals(1, availablePermits());
+		}
+
+		assertEquals(2, availablePermits());
+		mockMvc.perform(get("/api/customers")).andExpect(status().isOk());
+	}
+
+	/**
+	 * Teste para verificar que a exportação em streaming, que usa a conexão
+	 * depois de a thread da requisição ser liberada, devolve a permissão ao
+	 * terminar de escrever a resposta.
+	 */
+	@Test
+	void givenExport_WhenStreamingFinishes_ShouldReleasePermit() throws Exception {
+		service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11922220002")));
+
+		final MvcResult result = mockMvc.perform(get("/api/customers/export")).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		assertEquals(1, result.getResponse().getContentAsString().lines().count());
+		assertEquals(2, availablePermits());
+	}
+
+	private double availablePermits() {
+		return meterRegistry.get("db.permits.available").gauge().value();
+	}
+}
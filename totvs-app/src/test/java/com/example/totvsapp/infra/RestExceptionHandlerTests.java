@@ -0,0 +1,75 @@
+package com.example.totvsapp.infra;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.repositories.CustomerRepository;
+import com.example.totvsapp.repositories.PhoneRepository;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Testes das respostas de erro do {@link RestExceptionHandler} para erros que
+ * não vêm das validações do serviço.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RestExceptionHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@SpyBean
+	private PhoneRepository phoneRepository;
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+	}
+
+	/**
+	 * Teste para verificar que um número barrado pelo índice único
+	 * {@code idx_phones_number}, e não pela verificação prévia, recebe a mesma
+	 * resposta de telefone já vinculado.
+	 * <p>
+	 * Cenário: a verificação prévia não encontra o número, como acontece quando
+	 * outra requisição o vincula ao mesmo tempo, e a inserção falha no commit.
+	 * </p>
+	 */
+	@Test
+	void givenPhoneLinkedConcurrently_WhenInsert_ShouldAnswerPhoneAlreadyLinked() throws Exception {
+		service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11944440000")));
+		doReturn(List.of()).when(phoneRepository).findNumbersIn(anyCollection());
+
+		mockMvc.perform(post("/api/customers")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("""
+						{"name": "Jane Doe", "address": "address", "district": "district", "phones": ["11944440000"]}
+						"""))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.type").value("urn:totvs-app:problem:phone-already-linked"))
+				.andExpect(jsonPath("$.detail").value("Telefone já vinculado a outro cliente"));
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.totvsapp.infra;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.exceptions.CustomerNotFoundException;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Testes do perfil SQL por requisição: a impressão digital das instruções, o
+ * agrupamento no {@link SqlProfile} e o cabeçalho {@code Server-Timing},
+ * habilitado no perfil {@code test}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlProfilingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SqlProfiler sqlProfiler;
+
+	@Autowired
+	private CustomerService service;
+
+	/**
+	 * Teste para verificar que a impressão digital remove os literais, resume
+	 * as listas de parâmetros e normaliza os espaços, mantendo os
+	 * identificadores.
+	 */
+	@Test
+	void givenSqlWithLiterals_WhenFingerprint_ShouldStripLiteralsAndKeepIdentifiers() {
+		assertEquals("select c1_0.id from customer c1_0 where c1_0.name = ? and c1_0.id > ?",
+				SqlFingerprint.of("select c1_0.id\n  from customer c1_0 where c1_0.name = 'O''Brien' and c1_0.id > 42"));
+		assertEquals("select p1_0.number from phones p1_0 where p1_0.number in (?...)",
+				SqlFingerprint.of("select p1_0.number from phones p1_0 where p1_0.number in (?,?,?)"));
+		assertEquals("delete from customer where id in (?...)",
+				SqlFingerprint.of("delete /* bulk */ from customer where id in (1, 2, 3, 4)"));
+		assertEquals("insert into phones (customer_id,number,id) values (?...)",
+				SqlFingerprint.of("insert into phones (customer_id,number,id) values (?,?,?)"));
+		assertEquals("select \"t1\".\"col 2\" from t1 where x = ?",
+				SqlFingerprint.of("select \"t1\".\"col 2\" from t1 where x = ?"));
+	}
+
+	/**
+	 * Teste para verificar que a mesma consulta executada com valores
+	 * diferentes é agrupada em uma única impressão digital no perfil.
+	 */
+	@Test
+	void givenRepeatedQuery_WhenProfiled_ShouldGroupByFingerprint() {
+		final SqlProfile profile = sqlProfiler.start();
+		try {
+			assertThrows(CustomerNotFoundException.class, () -> service.getCustomerById(Long.MAX_VALUE));
+			assertThrows(CustomerNotFoundException.class, () -> service.getCustomerById(Long.MAX_VALUE - 1));
+		} finally {
+			sqlProfiler.stop();
+		}
+
+		assertTrue(profile.count() >= 2);
+		assertEquals(profile.count(), profile.statements().values().stream()
+				.mapToInt(SqlProfile.Statement::count).sum());
+		assertTrue(profile.statements().values().stream().anyMatch(statement -> statement.count() == 2),
+				profile.statements().keySet().toString());
+		assertTrue(profile.nanos() > 0);
+	}
+
+	/**
+	 * Teste para verificar que a resposta traz a quantidade de instruções e o
+	 * tempo no banco da requisição no cabeçalho {@code Server-Timing}, inclusive
+	 * nas respostas de erro.
+	 */
+	@Test
+	void givenRequest_WhenResponseHeaderEnabled_ShouldReturnServerTiming() throws Exception {
+		final Long id = service.insertAll(List.of(new CustomersDTO("Profiled", "Rua A, 1", "Centro",
+				List.of("11955550000")))).get(0).id();
+
+		final String found = mockMvc.perform(get("/api/customers/search").param("q", "Profiled"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(SqlProfilingFilter.SERVER_TIMING);
+		assertNotNull(found);
+		assertTrue(found.matches("db;desc=\"\\d+ queries\";dur=\\d+\\.\\d{3}"), found);
+
+		final String notFound = mockMvc.perform(get("/api/customers/{id}", id + 1_000_000))
+				.andExpect(status().isNotFound())
+				.andReturn().getResponse().getHeader(SqlProfilingFilter.SERVER_TIMING);
+		assertNotNull(notFound);
+		assertTrue(notFound.matches("db;desc=\"[1-9]\\d* queries\";dur=\\d+\\.\\d{3}"), notFound);
+	}
+}
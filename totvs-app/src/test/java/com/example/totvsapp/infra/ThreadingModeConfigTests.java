@@ -0,0 +1,26 @@
+package com.example.totvsapp.infra;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários da verificação do modo de threads de
+ * {@link ThreadingModeConfig}.
+ */
+class ThreadingModeConfigTests {
+
+	/**
+	 * Teste para verificar que a subida é interrompida quando o modo de threads
+	 * configurado contradiz o do build AOT, nos dois sentidos, e prossegue
+	 * quando os dois coincidem.
+	 */
+	@Test
+	void givenThreadingModes_WhenVerify_ShouldRejectOnlyMismatches() {
+		assertDoesNotThrow(() -> ThreadingModeConfig.verify(false, false));
+		assertDoesNotThrow(() -> ThreadingModeConfig.verify(true, true));
+		assertThrows(IllegalStateException.class, () -> ThreadingModeConfig.verify(true, false));
+		assertThrows(IllegalStateException.class, () -> ThreadingModeConfig.verify(false, true));
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.totvsapp.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.domain.Customers.Customers;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerSearchIndex;
+import com.example.totvsapp.services.CustomerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes da busca de clientes pela consulta com trigramas do PostgreSQL
+ * ({@link CustomerRepository#searchIds}), usada quando o índice em memória
+ * está desabilitado, contra as migrações aplicadas em um PostgreSQL embutido.
+ * <p>
+ * Os resultados de cada busca são comparados com os de um
+ * {@link CustomerSearchIndex} carregado com os mesmos clientes, de modo que os
+ * dois caminhos encontram e ordenam os clientes da mesma forma.
+ * </p>
+ */
+@SpringBootTest
+@DirtiesContext
+class CustomerSearchQueryTests {
+
+	@Autowired
+	private CustomerService service;
+
+	@DynamicPropertySource
+	static void searchDatabase(DynamicPropertyRegistry registry) {
+		String url = TestPostgres.createDatabase("search");
+		registry.add("spring.datasource.url", () -> url);
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+		registry.add("totvs.search.in-memory-index", () -> "false");
+	}
+
+	/**
+	 * Teste para verificar que a consulta ignora acentos, maiúsculas e
+	 * pontuação, encontra prefixos de palavras que não a primeira e ordena os
+	 * resultados como o índice em memória.
+	 */
+	@Test
+	void givenCustomers_WhenSearchInDatabase_ShouldMatchInMemoryIndex() {
+		final CustomerSearchIndex memory = new CustomerSearchIndex(new SimpleMeterRegistry(), true);
+		final List<Customers> customers = new ArrayList<>();
+		long phone = 11988880000L;
+		for (String[] customer : new String[][] {
+				{ "João da Silva", "Centro" },
+				{ "Joana Souza", "Centro" },
+				{ "Maria Silvia", "Jardim América" },
+				{ "Pedro Alves", "Centro" },
+				{ "Ana-Maria D'Ávila", "Jardim Europa" },
+				{ "JOSÉ ALVES", "Água Verde" },
+				{ "Silvana Costa", "Centro" } }) {
+			final Customers inserted = service.insert(
+					new CustomersDTO(customer[0], "address", customer[1], List.of(String.valueOf(phone++))));
+			memory.putAfterCommit(inserted.getId(), customer[0], customer[1]);
+			customers.add(inserted);
+		}
+
+		assertEquals(List.of(customers.get(5).getId()), searchIds("José", null));
+		assertEquals(List.of(customers.get(0).getId()), searchIds("JOÃO", null));
+		assertEquals(List.of(customers.get(6).getId(), customers.get(0).getId()), searchIds("silva", "centro"));
+		assertEquals(List.of(customers.get(4).getId()), searchIds("Ávila", null));
+		assertEquals(List.of(customers.get(2).getId()), searchIds("silv", "JARDIM AMÉR"));
+		assertEquals(List.of(), searchIds("!!!", null));
+
+		for (String[] search : new String[][] {
+				{ "jo", null }, { "Joao Silv", null }, { "silva", null }, { "silv", "jardim" }, { "alves", null },
+				{ "alvez", null }, { "ana maria", null }, { "d'avila", null }, { "maria", "jardim" }, { "jose", "agua" },
+				{ "costa silvana", null }, { "a", null } }) {
+			assertEquals(memory.search(search[0], search[1], 0, 10), searchIds(search[0], search[1]),
+					search[0] + " / " + search[1]);
+		}
+	}
+
+	private List<Long> searchIds(String query, String district) {
+		return service.search(query, district, 0, 10).customers().stream().map(CustomerView::id).toList();
+	}
+}
@@ -0,0 +1,179 @@
+package com.example.totvsapp.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.totvsapp.domain.Customers.Customers;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Testes da adoção, pelas migrações do Flyway, de um banco PostgreSQL criado
+ * pelo antigo {@code spring.jpa.hibernate.ddl-auto=update}.
+ * <p>
+ * O esquema antigo é o que o Hibernate gerou até a adoção do Flyway: ids
+ * {@code bigserial}, {@code phones.number} em {@code varchar}, a coluna
+ * {@code version} acrescentada sem valor nos clientes existentes, a chave
+ * estrangeira sem exclusão em cascata, o índice não único do número e as
+ * sequências do otimizador criadas em 1. A aplicação sobe sobre ele com
+ * {@code ddl-auto=validate} e continua inserindo clientes.
+ * </p>
+ */
+@SpringBootTest
+@DirtiesContext
+class LegacySchemaMigrationTests {
+
+	private static final String LEGACY_SCHEMA = """
+			create table customer (
+			    id bigserial not null,
+			    address varchar(255),
+			    district varchar(255),
+			    name varchar(255),
+			    primary key (id)
+			);
+			create table phones (
+			    id bigserial not null,
+			    number varchar(255),
+			    customer_id bigint not null,
+			    primary key (id)
+			);
+			alter table if exists phones add constraint fknixlpkm9kw7pcvqq5gsqgldn4
+			    foreign key (customer_id) references customer;
+			alter table if exists customer add column version bigint;
+			create sequence customer_seq start with 1 increment by 50;
+			create sequence phones_seq start with 1 increment by 50;
+			create index idx_phones_number on phones (number);
+			create index idx_phones_customer_id on phones (customer_id);
+			""";
+
+	private static final String LEGACY_DATA = """
+			insert into customer (name, address, district) values
+			    ('Cliente 1', 'Rua 1', 'Centro'),
+			    ('Cliente 2', 'Rua 2', 'Centro'),
+			    ('Cliente 3', 'Rua 3', 'Centro');
+			insert into phones (number, customer_id) values
+			    ('11987654321', 1), ('11333344441', 1),
+			    ('11987654322', 2), ('11333344442', 2),
+			    ('11987654323', 3), ('11333344443', 3);
+			""";
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void legacyDatabase(DynamicPropertyRegistry registry) {
+		String url = TestPostgres.createDatabase("legacy");
+		execute(url, LEGACY_SCHEMA + LEGACY_DATA);
+		registry.add("spring.datasource.url", () -> url);
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+	}
+
+	/**
+	 * Teste para verificar que, após as migrações, o número do telefone é
+	 * {@code bigint}, os clientes antigos têm versão 0 e os novos clientes e
+	 * telefones recebem ids acima dos já gravados, sem colidir na chave
+	 * primária.
+	 */
+	@Test
+	void givenLegacySchema_WhenMigrated_ShouldValidateAndInsertAfterExistingIds() {
+		assertEquals("bigint", jdbcTemplate.queryForObject(
+				"select data_type from information_schema.columns where table_name = 'phones' and column_name = 'number'",
+				String.class));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from customer where version is null", Integer.class));
+		assertEquals(0L, service.getCustomerById(1L).version());
+		assertEquals(1L, service.getCustomerByPhone("11333344441").id());
+
+		Customers inserted = service.insert(new CustomersDTO("Cliente 4", "Rua 4", "Centro",
+				List.of("11987654324", "11333344444")));
+
+		assertTrue(inserted.getId() > 3);
+		assertTrue(inserted.getPhones().stream().allMatch(phone -> phone.getId() > 6));
+	}
+
+	/**
+	 * Teste para verificar que a migração é interrompida, listando os
+	 * telefones, quando o banco antigo tem números repetidos, em vez de falhar
+	 * na criação do índice único ou apagar dados.
+	 */
+	@Test
+	void givenLegacySchemaWithDuplicateNumbers_WhenMigrated_ShouldReportDuplicates() {
+		String url = TestPostgres.createDatabase("legacy_duplicates");
+		execute(url, LEGACY_SCHEMA + LEGACY_DATA
+				+ "insert into phones (number, customer_id) values ('11987654321', 2), ('11987654322', 3);");
+
+		FlywayException exception = assertThrows(FlywayException.class, () -> legacyFlyway(url).migrate());
+		assertTrue(exception.getMessage().contains("11987654321 (ids 1, 7)"), exception.getMessage());
+		assertTrue(exception.getMessage().contains("11987654322 (ids 3, 8)"), exception.getMessage());
+	}
+
+	/**
+	 * Teste para verificar que a migração é interrompida, listando os
+	 * telefones, quando o banco antigo tem números fora da forma canônica, sem
+	 * converter nenhum deles; um zero à esquerda, em especial, seria perdido na
+	 * conversão para {@code bigint}.
+	 */
+	@Test
+	void givenLegacySchemaWithInvalidNumbers_WhenMigrated_ShouldReportThemWithoutConverting() {
+		String url = TestPostgres.createDatabase("legacy_invalid");
+		execute(url, LEGACY_SCHEMA + LEGACY_DATA
+				+ "insert into phones (number, customer_id) values "
+				+ "('011987654325', 1), ('119876543', 2), ('119876543210', 3), ('(11) 98765-4326', 3);");
+
+		FlywayException exception = assertThrows(FlywayException.class, () -> legacyFlyway(url).migrate());
+		assertTrue(exception.getMessage().contains(
+				"id 7: '011987654325', id 8: '119876543', id 9: '119876543210', id 10: '(11) 98765-4326'"),
+				exception.getMessage());
+		assertEquals("character varying", queryForString(url,
+				"select data_type from information_schema.columns where table_name = 'phones' and column_name = 'number'"));
+	}
+
+	private static Flyway legacyFlyway(String url) {
+		return Flyway.configure()
+				.dataSource(url, "postgres", "postgres")
+				.locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+				.baselineOnMigrate(true)
+				.baselineVersion("0")
+				.load();
+	}
+
+	private static String queryForString(String url, String sql) {
+		try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres");
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(sql)) {
+			return resultSet.next() ? resultSet.getString(1) : null;
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void execute(String url, String sql) {
+		try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres");
+				Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
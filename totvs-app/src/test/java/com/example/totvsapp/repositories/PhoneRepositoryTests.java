@@ -0,0 +1,153 @@
+package com.example.totvsapp.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.services.CustomerSearchIndex;
+import com.example.totvsapp.services.CustomerService;
+
+/**
+ * Testes dos planos de execução das consultas de {@link PhoneRepository}
+ * contra o esquema criado por todas as migrações do Flyway, inclusive as
+ * específicas do PostgreSQL, em um PostgreSQL embutido.
+ * <p>
+ * O SQL de cada consulta é o gerado pelo Hibernate, capturado por um
+ * {@link StatementInspector}, e o plano é obtido com {@code EXPLAIN} sobre uma
+ * massa de clientes e telefones com estatísticas atualizadas. Os testes falham
+ * se uma migração deixar de criar os índices, ou mudar o tipo das colunas, ou
+ * se a consulta mudar de forma que o planejador do PostgreSQL deixe de
+ * percorrê-los por {@code Index Scan} ou {@code Index Only Scan}.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.example.totvsapp.repositories.PhoneRepositoryTests$RecordingStatementInspector")
+@DirtiesContext
+class PhoneRepositoryTests {
+
+	private static final int CUSTOMERS = 5000;
+
+	private static final long FIRST_NUMBER = 11900000000L;
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private PhoneRepository phoneRepository;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void phonesDatabase(DynamicPropertyRegistry registry) {
+		String url = TestPostgres.createDatabase("phones");
+		registry.add("spring.datasource.url", () -> url);
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+	}
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+		customerSearchIndex.load();
+
+		List<CustomersDTO> customers = new ArrayList<>(CUSTOMERS);
+		for (int i = 0; i < CUSTOMERS; i++) {
+			customers.add(new CustomersDTO("Customer " + i, "Rua das Flores, " + i, "Centro",
+					List.of(Long.toString(FIRST_NUMBER + 2 * i), Long.toString(FIRST_NUMBER + 2 * i + 1))));
+		}
+		service.insertAll(customers);
+		jdbcTemplate.execute("analyze");
+	}
+
+	/**
+	 * Teste para verificar que a busca de um telefone pelo número usa o índice
+	 * único {@code idx_phones_number}, e não uma varredura da tabela.
+	 */
+	@Test
+	void givenSeededPhones_WhenFindByNumber_ShouldUseNumberIndex() {
+		final String number = Long.toString(FIRST_NUMBER + 42);
+
+		RecordingStatementInspector.clear();
+		assertEquals(number, phoneRepository.findByNumber(number).getNumber());
+
+		final String plan = explain(RecordingStatementInspector.lastPhonesQuery(), FIRST_NUMBER + 42);
+		assertTrue(usesIndexScan(plan, "idx_phones_number"), plan);
+	}
+
+	/**
+	 * Teste para verificar que a busca dos telefones de um cliente usa o índice
+	 * {@code idx_phones_customer_id}, e não uma varredura da tabela.
+	 */
+	@Test
+	void givenSeededPhones_WhenFindByCustomersId_ShouldUseCustomerIndex() {
+		final Long customerId = phoneRepository.findCustomerIdByNumber(Long.toString(FIRST_NUMBER + 42)).orElseThrow();
+
+		RecordingStatementInspector.clear();
+		assertEquals(2, phoneRepository.findByCustomersId(customerId).size());
+
+		final String plan = explain(RecordingStatementInspector.lastPhonesQuery(), customerId);
+		assertTrue(usesIndexScan(plan, "idx_phones_customer_id"), plan);
+	}
+
+	private String explain(String sql, Object parameter) {
+		return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameter));
+	}
+
+	private static boolean usesIndexScan(String plan, String index) {
+		return plan.contains("Index Scan using " + index + " ") || plan.contains("Index Only Scan using " + index + " ");
+	}
+
+	/**
+	 * Registra as instruções SQL geradas pelo Hibernate, sem alterá-las.
+	 */
+	public static class RecordingStatementInspector implements StatementInspector {
+
+		private static final List<String> STATEMENTS = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			synchronized (STATEMENTS) {
+				STATEMENTS.add(sql);
+			}
+			return sql;
+		}
+
+		static void clear() {
+			synchronized (STATEMENTS) {
+				STATEMENTS.clear();
+			}
+		}
+
+		static String lastPhonesQuery() {
+			synchronized (STATEMENTS) {
+				for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+					String sql = STATEMENTS.get(i);
+					if (sql.startsWith("select") && sql.contains(" from phones ")) {
+						return sql;
+					}
+				}
+			}
+			throw new AssertionError("Nenhuma consulta de telefones registrada");
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.totvsapp.repositories;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * PostgreSQL embutido para os testes que dependem do próprio PostgreSQL, como
+ * as migrações específicas do banco e as consultas com pg_trgm, que o H2 do
+ * perfil {@code test} não reproduz.
+ * <p>
+ * Uma única instância é iniciada na primeira utilização e encerrada junto com
+ * a JVM. Cada teste cria o seu próprio banco, para não depender dos demais.
+ * </p>
+ */
+final class TestPostgres {
+
+	private static EmbeddedPostgres postgres;
+
+	private TestPostgres() {
+	}
+
+	/**
+	 * Cria um banco vazio na instância compartilhada.
+	 *
+	 * @param database O nome do banco.
+	 * @return A URL JDBC do banco criado, para o usuário {@code postgres}.
+	 */
+	static synchronized String createDatabase(String database) {
+		try {
+			if (postgres == null) {
+				postgres = EmbeddedPostgres.builder().start();
+			}
+			try (Connection connection = postgres.getPostgresDatabase().getConnection();
+					Statement statement = connection.createStatement()) {
+				statement.execute("create database " + database);
+			}
+			return postgres.getJdbcUrl("postgres", database);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.example.totvsapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.totvsapp.domain.Customers.CustomerSearchRow;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.repositories.CustomerRepository;
+
+/**
+ * Testes da manutenção do {@link CustomerSearchIndex}: remoções e alterações
+ * intercaladas e escritas confirmadas durante a reconstrução do índice.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerSearchIndexTests {
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
+	@SpyBean
+	private CustomerRepository customerRepository;
+
+	private long phoneSequence = 11977000000L;
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+		customerSearchIndex.load();
+	}
+
+	/**
+	 * Teste para verificar que remoções, alterações e reinserções intercaladas
+	 * mantêm as listas de trigramas coerentes, mesmo quando a remoção de um
+	 * cliente move outro dentro das listas e as posições livres são
+	 * reaproveitadas.
+	 */
+	@Test
+	void givenInterleavedWrites_WhenSearch_ShouldFindExactlyTheIndexedCustomers() {
+		final List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			ids.add(insert("Customer " + i));
+		}
+
+		service.delete(ids.get(0));
+		service.deleteAll(List.of(ids.get(19), ids.get(7), ids.get(5)));
+		service.update(ids.get(3), new CustomersDTO("Other", "address", "district", List.of(String.valueOf(phoneSequence++))));
+		final Long reinserted = insert("Customer again");
+
+		final List<Long> expected = new ArrayList<>(ids);
+		expected.removeAll(List.of(ids.get(0), ids.get(19), ids.get(7), ids.get(5), ids.get(3)));
+		expected.add(reinserted);
+		assertEquals(expected, customerSearchIndex.search("customer", null, 0, 100).stream().sorted().toList());
+		assertEquals(List.of(ids.get(3)), customerSearchIndex.search("other", null, 0, 100));
+	}
+
+	/**
+	 * Teste para verificar que as escritas confirmadas enquanto o índice é
+	 * reconstruído, depois de os clientes já terem sido lidos do banco, são
+	 * reaplicadas sobre o índice reconstruído em vez de se perderem na troca.
+	 */
+	@Test
+	void givenWritesDuringLoad_WhenLoad_ShouldReplayThemOnNewIndex() {
+		final Long ana = insert("Ana Lima");
+		final Long bruno = insert("Bruno Lima");
+		final List<Long> inserted = new ArrayList<>();
+
+		// Os clientes lidos pela reconstrução antes das escritas confirmadas em outra transação
+		doAnswer(invocation -> {
+			CompletableFuture.runAsync(() -> {
+				service.delete(ana);
+				inserted.add(insert("Carla Lima"));
+			}).join();
+			return Stream.of(new CustomerSearchRow(ana, "Ana Lima", "district"),
+					new CustomerSearchRow(bruno, "Bruno Lima", "district"));
+		}).when(customerRepository).streamAllForSearch();
+
+		customerSearchIndex.load();
+
+		assertEquals(List.of(bruno, inserted.get(0)),
+				customerSearchIndex.search("lima", null, 0, 10).stream().sorted().toList());
+	}
+
+	private Long insert(String name) {
+		return service.insert(new CustomersDTO(name, "address", "district", List.of(String.valueOf(phoneSequence++)))).getId();
+	}
+}
@@ -0,0 +1,591 @@
+package com.example.totvsapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.totvsapp.domain.Customers.CustomerChange;
+import com.example.totvsapp.domain.Customers.CustomerView;
+import com.example.totvsapp.domain.Customers.CustomersDTO;
+import com.example.totvsapp.exceptions.CustomerNotFoundException;
+import com.example.totvsapp.exceptions.CustomerVersionMismatchException;
+import com.example.totvsapp.exceptions.PhoneAlreadyLinkedException;
+import com.example.totvsapp.exceptions.PhoneFormatInvalidException;
+import com.example.totvsapp.exceptions.PhoneNotFoundException;
+import com.example.totvsapp.repositories.CustomerRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Testes de integração do {@link CustomerService}, executados contra um banco
+ * H2 em memória no modo PostgreSQL (perfil {@code test}).
+ * <p>
+ * Os testes utilizam as estatísticas do Hibernate para contar as instruções
+ * SQL emitidas por cada operação, garantindo que os caminhos de leitura não
+ * voltem a apresentar o padrão N+1.
+ * </p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerServiceTests {
+
+	@Autowired
+	private CustomerService service;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CustomerSearchIndex customerSearchIndex;
+
+	@Autowired
+	private CustomerChangeFeed customerChangeFeed;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PhoneNumberIndex phoneNumberIndex;
+
+	private Statistics statistics;
+
+	private long phoneSequence = 11900000000L;
+
+	@BeforeEach
+	void setUp() {
+		customerRepository.deleteAll();
+		customerSearchIndex.load();
+		phoneNumberIndex.load();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	/**
+	 * Teste para verificar que a listagem de clientes executa uma quantidade
+	 * constante de consultas, independentemente do número de clientes.
+	 * <p>
+	 * Cenário: Dado um conjunto pequeno de clientes, quando listar todos, mede-se
+	 * a quantidade de instruções; em seguida, após inserir muito mais clientes,
+	 * a listagem deve executar exatamente a mesma quantidade de instruções,
+	 * retornar todos os telefones e não carregar nenhuma entidade.
+	 * </p>
+	 */
+	@Test
+	void givenGrowingCustomers_WhenGetAll_ShouldKeepQueryCountConstant() {
+		insertCustomers(3, 2);
+
+		statistics.clear();
+		List<CustomerView> smallList = service.getAll();
+		final var smallCount = statistics.getPrepareStatementCount();
+
+		insertCustomers(30, 3);
+
+		statistics.clear();
+		List<CustomerView> largeList = service.getAll();
+		final var largeCount = statistics.getPrepareStatementCount();
+		final var loadedEntities = statistics.getEntityLoadCount() + statistics.getCollectionLoadCount();
+
+		assertEquals(3, smallList.size());
+		assertEquals(33, largeList.size());
+		assertEquals(smallCount, largeCount);
+		assertEquals(0, loadedEntities);
+		assertEquals(96, largeList.stream().mapToInt(customer -> customer.phones().size()).sum());
+	}
+
+	/**
+	 * Teste para verificar que a exportação entrega cada cliente uma única vez,
+	 * na ordem do ID e com todos os seus telefones agrupados.
+	 */
+	@Test
+	void givenCustomersWithPhones_WhenExportAll_ShouldGroupPhonesByCustomer() {
+		insertCustomers(5, 3);
+		final List<CustomerView> exported = new ArrayList<>();
+
+		service.exportAll(exported::add);
+
+		assertEquals(5, exported.size());
+		assertTrue(exported.stream().allMatch(customer -> customer.phones().size() == 3));
+		assertEquals(
+				exported.stream().map(CustomerView::id).sorted().toList(),
+				exported.stream().map(CustomerView::id).toList());
+	}
+
+	/**
+	 * Teste para verificar que a inserção em lote cria os itens válidos e
+	 * rejeita individualmente os itens inválidos, com o código de erro
+	 * correspondente, validando todos os telefones com uma quantidade de
+	 * consultas que não depende do tamanho do lote.
+	 */
+	@Test
+	void givenMixedBatch_WhenInsertAll_ShouldReportResultPerItem() {
+		insertCustomers(1, 1);
+		final var linkedPhone = String.valueOf(phoneSequence - 1);
+
+		final var batch = List.of(
+				new CustomersDTO("Valid", "address", "district", List.of("11987654321", "11987654322")),
+				new CustomersDTO("Empty", "address", "district", List.of()),
+				new CustomersDTO("Invalid", "address", "district", List.of("123abc")),
+				new CustomersDTO("Linked", "address", "district", List.of(linkedPhone)),
+				new CustomersDTO("Repeated", "address", "district", List.of("11987654321")));
+
+		statistics.clear();
+		final var results = service.insertAll(batch);
+
+		assertEquals(5, results.size());
+		assertTrue(results.get(0).id() != null && results.get(0).error() == null);
+		assertEquals("PHONE_EMPTY", results.get(1).error());
+		assertEquals("PHONE_FORMAT_INVALID", results.get(2).error());
+		assertEquals("PHONE_ALREADY_LINKED", results.get(3).error());
+		assertEquals("PHONE_ALREADY_LINKED", results.get(4).error());
+		assertEquals(1, statistics.getQueryExecutionCount());
+		assertEquals(2, customerRepository.count());
+	}
+
+	/**
+	 * Teste para verificar que a paginação por chave percorre todos os clientes
+	 * sem repetições e que cada página, da primeira à última, executa no máximo
+	 * duas instruções, com os telefones e sem carregar entidades.
+	 */
+	@Test
+	void givenCustomers_WhenGetPage_ShouldWalkAllPagesWithConstantQueries() {
+		insertCustomers(23, 2);
+
+		final List<Long> ids = new ArrayList<>();
+		Long cursor = 0L;
+		do {
+			statistics.clear();
+			final var page = service.getPage(cursor, 5);
+
+			assertTrue(statistics.getPrepareStatementCount() <= 2);
+			assertEquals(0, statistics.getEntityLoadCount());
+			assertTrue(page.customers().stream().allMatch(c -> c.phones().size() == 2));
+			page.customers().forEach(c -> ids.add(c.id()));
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		assertEquals(23, ids.size());
+		assertEquals(ids.stream().sorted().distinct().toList(), ids);
+	}
+
+	/**
+	 * Teste para verificar que a busca encontra nomes por prefixo de palavra,
+	 * ignorando acentos, e por semelhança, filtra pelo bairro, pagina os
+	 * resultados e acompanha as alterações e exclusões de clientes.
+	 */
+	@Test
+	void givenCustomers_WhenSearch_ShouldRankFilterAndFollowWrites() {
+		final var joao = service.insert(new CustomersDTO("João da Silva", "address", "Centro", List.of("11944440001")));
+		final var joana = service.insert(new CustomersDTO("Joana Souza", "address", "Centro", List.of("11944440002")));
+		final var maria = service.insert(new CustomersDTO("Maria Silvia", "address", "Jardim América", List.of("11944440003")));
+		service.insert(new CustomersDTO("Pedro Alves", "address", "Centro", List.of("11944440004")));
+
+		assertEquals(List.of(joana.getId(), joao.getId()), searchIds("jo", null));
+		assertEquals(List.of(joao.getId()), searchIds("Joao Silv", null));
+		assertEquals(List.of(maria.getId()), searchIds("silv", "jardim"));
+
+		final var firstPage = service.search("jo", null, 0, 1);
+		assertEquals(1L, firstPage.nextCursor());
+		assertEquals(joao.getId(), service.search("jo", null, 1, 1).customers().get(0).id());
+
+		service.update(joana.getId(), new CustomersDTO("Beatriz Souza", "address", "Centro", List.of("11944440002")));
+		service.delete(joao.getId());
+		assertEquals(List.of(), searchIds("jo", null));
+	}
+
+	private List<Long> searchIds(String query, String district) {
+		return service.search(query, district, 0, 10).customers().stream().map(CustomerView::id).toList();
+	}
+
+	/**
+	 * Teste para verificar que o feed de alterações publica a inserção, a
+	 * alteração e a exclusão confirmadas, em sequência e com o cliente já na
+	 * versão confirmada, que uma operação rejeitada não publica nada e que um
+	 * número de sequência fora do buffer exige a releitura da lista.
+	 */
+	@Test
+	void givenMutations_WhenReadingChangeFeed_ShouldPublishCommittedChangesInOrder() {
+		final long start = customerChangeFeed.latestSequence();
+		final var customer = service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11955550001")));
+		final var updated = service.update(customer.getId(),
+				new CustomersDTO("Jane Doe", "address", "district", List.of("11955550002")));
+		assertThrows(PhoneAlreadyLinkedException.class,
+				() -> service.insert(new CustomersDTO("Other", "address", "district", List.of("11955550002"))));
+		service.delete(customer.getId());
+
+		final var changes = customerChangeFeed.changesAfter(start).orElseThrow();
+		assertEquals(List.of(CustomerChange.Type.INSERTED, CustomerChange.Type.UPDATED, CustomerChange.Type.DELETED),
+				changes.stream().map(CustomerChange::type).toList());
+		assertEquals(List.of(start + 1, start + 2, start + 3), changes.stream().map(CustomerChange::sequence).toList());
+		assertEquals("Jane Doe", changes.get(1).customer().name());
+		assertEquals(updated.getVersion(), changes.get(1).customer().version());
+		assertEquals(List.of("11955550002"), changes.get(1).customer().phones().stream().map(phone -> phone.number()).toList());
+		assertNull(changes.get(2).customer());
+		assertEquals(List.of(), customerChangeFeed.changesAfter(start + 3).orElseThrow());
+		assertTrue(customerChangeFeed.changesAfter(start + 4).isEmpty());
+		assertTrue(customerChangeFeed.changesAfter(0).isEmpty());
+	}
+
+	/**
+	 * Teste para verificar que a exclusão em lote usa uma quantidade constante
+	 * de instruções, remove os telefones pela chave estrangeira em cascata e
+	 * mantém a busca e o feed de alterações coerentes.
+	 * <p>
+	 * Cenário: Dados clientes com vários telefones, quando excluir parte deles
+	 * em lote, junto com um ID inexistente e um repetido, devem ser executadas
+	 * exatamente duas instruções, e os números dos telefones excluídos devem
+	 * poder ser cadastrados novamente.
+	 * </p>
+	 */
+	@Test
+	void givenCustomersWithPhones_WhenDeleteAll_ShouldUseConstantStatementsAndCascade() {
+		insertCustomers(6, 3);
+		final List<Long> ids = service.getAll().stream().map(CustomerView::id).toList();
+		final List<String> removedPhones = service.getCustomerById(ids.get(0)).phones().stream()
+				.map(phone -> phone.number()).toList();
+		final long start = customerChangeFeed.latestSequence();
+
+		statistics.clear();
+		final var deleted = service.deleteAll(List.of(ids.get(0), ids.get(1), ids.get(2), ids.get(0), -1L));
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(3, deleted);
+
+		assertEquals(ids.subList(3, 6), service.getAll().stream().map(CustomerView::id).toList());
+		assertEquals(ids.subList(3, 6), searchIds("customer", null).stream().sorted().toList());
+		assertEquals(List.of(CustomerChange.Type.DELETED, CustomerChange.Type.DELETED, CustomerChange.Type.DELETED),
+				customerChangeFeed.changesAfter(start).orElseThrow().stream().map(CustomerChange::type).toList());
+		assertNotNull(service.insert(new CustomersDTO("John Doe", "address", "district", removedPhones)).getId());
+		assertThrows(CustomerNotFoundException.class, () -> service.delete(ids.get(0)));
+	}
+
+	/**
+	 * Teste para verificar que a consulta por telefone encontra o dono do
+	 * número, atende as consultas repetidas sem ir ao banco e acompanha a
+	 * troca do número de cliente.
+	 * <p>
+	 * Cenário: Dado um cliente com um telefone, quando consultar pelo número
+	 * formatado duas vezes, a segunda consulta não deve executar instruções;
+	 * após o número passar para outro cliente, a consulta deve retornar o novo
+	 * dono, e números não cadastrados ou inválidos devem ser rejeitados.
+	 * </p>
+	 */
+	@Test
+	void givenPhone_WhenGetCustomerByPhone_ShouldServeRepeatedLookupsFromCache() {
+		final var john = service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11966660001")));
+
+		assertEquals(john.getId(), service.getCustomerByPhone("(11) 96666-0001").id());
+		statistics.clear();
+		assertEquals(john.getId(), service.getCustomerByPhone("11966660001").id());
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		service.update(john.getId(), new CustomersDTO("John Doe", "address", "district", List.of("11966660002")));
+		final var jane = service.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11966660001")));
+		assertEquals(jane.getId(), service.getCustomerByPhone("11966660001").id());
+		assertEquals(john.getId(), service.getCustomerByPhone("11966660002").id());
+
+		assertThrows(PhoneNotFoundException.class, () -> service.getCustomerByPhone("11966660003"));
+		assertThrows(PhoneFormatInvalidException.class, () -> service.getCustomerByPhone("abc"));
+	}
+
+	/**
+	 * Teste para verificar que a consulta pelo telefone encontra números
+	 * vinculados por outra instância da aplicação, gravados diretamente no
+	 * banco, mesmo depois de uma consulta anterior não encontrar o número.
+	 */
+	@Test
+	void givenPhoneLinkedByAnotherInstance_WhenGetCustomerByPhone_ShouldFindItInDatabase() {
+		assertThrows(PhoneNotFoundException.class, () -> service.getCustomerByPhone("11977770001"));
+
+		jdbcTemplate.update("insert into customer (id, name, address, district, version) values (?, ?, ?, ?, 0)",
+				1_000_000L, "John Doe", "address", "district");
+		jdbcTemplate.update("insert into phones (id, number, customer_id) values (?, ?, ?)",
+				1_000_000L, 11977770001L, 1_000_000L);
+
+		assertEquals(1_000_000L, service.getCustomerByPhone("11977770001").id());
+	}
+
+	/**
+	 * Teste para verificar que o índice de telefones evita consultas ao banco
+	 * para números ainda não cadastrados, mas continua rejeitando números já
+	 * vinculados, e que as respostas do índice e os falsos positivos são
+	 * contados nas métricas.
+	 */
+	@Test
+	void givenUnknownPhones_WhenInsert_ShouldSkipPhoneLookups() {
+		final double absent = indexLookups("absent");
+		final double maybe = indexLookups("maybe");
+		final double falsePositives = meterRegistry.get("phones.index.false.positives").counter().count();
+		final Long id = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("11911112222", "11911113333")))
+				.getId();
+		statistics.clear();
+		service.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11911114444")));
+
+		assertEquals(0, statistics.getQueryExecutionCount());
+		assertEquals(absent + 3, indexLookups("absent"));
+		final var exception = assertThrows(PhoneAlreadyLinkedException.class, () -> service
+				.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11911113333"))));
+		assertEquals(0, exception.getStackTrace().length);
+		assertEquals(maybe + 1, indexLookups("maybe"));
+
+		service.update(id, new CustomersDTO("John Doe", "address", "district", List.of("11911112222")));
+		service.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11911113333")));
+		assertEquals(maybe + 1, indexLookups("maybe"));
+		assertEquals(falsePositives, meterRegistry.get("phones.index.false.positives").counter().count());
+	}
+
+	/**
+	 * Teste para verificar que um número vinculado por outra instância, e por
+	 * isso ausente do índice de telefones, ainda é rejeitado pelo índice único do
+	 * banco.
+	 */
+	@Test
+	void givenPhoneLinkedByAnotherInstance_WhenInsert_ShouldBeRejectedByUniqueIndex() {
+		jdbcTemplate.update("insert into customer (id, name, address, district, version) values (?, ?, ?, ?, 0)",
+				1_000_000L, "John Doe", "address", "district");
+		jdbcTemplate.update("insert into phones (id, number, customer_id) values (?, ?, ?)",
+				1_000_000L, 11977770002L, 1_000_000L);
+
+		assertThrows(DataIntegrityViolationException.class, () -> service
+				.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11977770002"))));
+		assertEquals(1, customerRepository.count());
+	}
+
+	/**
+	 * Teste para verificar que telefones formatados são aceitos e armazenados
+	 * na forma canônica, e que a forma canônica é usada na verificação de
+	 * duplicidade.
+	 */
+	@Test
+	void givenFormattedPhone_WhenInsert_ShouldStoreCanonicalNumber() {
+		final var customer = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("(11) 98765-4321")));
+
+		assertEquals("11987654321", customer.getPhones().get(0).getNumber());
+		assertThrows(PhoneAlreadyLinkedException.class, () -> service
+				.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11 98765 4321"))));
+	}
+
+	/**
+	 * Teste para verificar que a inserção rejeita o mesmo número informado duas
+	 * vezes no próprio cliente, inclusive em formatos diferentes, sem gravar o
+	 * cliente, como a inserção em lote faz para cada item.
+	 */
+	@Test
+	void givenRepeatedPhoneInRequest_WhenInsert_ShouldThrowPhoneAlreadyLinkedException() {
+		assertThrows(PhoneAlreadyLinkedException.class, () -> service.insert(
+				new CustomersDTO("John Doe", "address", "district", List.of("11987654321", "(11) 98765-4321"))));
+
+		assertEquals(0, customerRepository.count());
+		assertEquals("PHONE_ALREADY_LINKED", service.insertAll(List.of(
+				new CustomersDTO("John Doe", "address", "district", List.of("11987654321", "(11) 98765-4321"))))
+				.get(0).error());
+	}
+
+	/**
+	 * Teste para verificar que consultas repetidas pelo ID são atendidas pelo
+	 * cache sem acessar o banco, e que a atualização do cliente invalida a
+	 * entrada em cache.
+	 */
+	@Test
+	void givenCachedCustomer_WhenGetByIdAndUpdate_ShouldServeFromCacheAndInvalidate() {
+		final var customer = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("11922223333")));
+
+		service.getCustomerById(customer.getId());
+		statistics.clear();
+		final var cached = service.getCustomerById(customer.getId());
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals("John Doe", cached.name());
+
+		service.update(customer.getId(),
+				new CustomersDTO("Jane Doe", "address", "district", List.of("11922224444")));
+		final var updated = service.getCustomerById(customer.getId());
+
+		assertEquals("Jane Doe", updated.name());
+		assertEquals("11922224444", updated.phones().get(0).number());
+	}
+
+	/**
+	 * Teste para verificar que alterar apenas os telefones incrementa a versão
+	 * do cliente e a marca de versão da lista, e que uma versão esperada
+	 * desatualizada impede a atualização.
+	 */
+	@Test
+	void givenPhoneOnlyChange_WhenUpdate_ShouldBumpVersionAndRejectStaleVersion() {
+		final var customer = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("11933334444")));
+		final var initialVersion = service.getCustomerById(customer.getId()).version();
+		final var initialTag = service.getListVersionTag();
+
+		service.update(customer.getId(),
+				new CustomersDTO("John Doe", "address", "district", List.of("11933335555")), initialVersion);
+
+		assertTrue(service.getCustomerById(customer.getId()).version() > initialVersion);
+		assertNotEquals(initialTag, service.getListVersionTag());
+		assertThrows(CustomerVersionMismatchException.class, () -> service.update(customer.getId(),
+				new CustomersDTO("John Doe", "address", "district", List.of("11933336666")), initialVersion));
+	}
+
+	/**
+	 * Teste para verificar que a marca de versão da lista muda quando um
+	 * cliente na versão 0 é excluído e outro, também na versão 0 e com um ID
+	 * menor, é inserido, mantendo a quantidade de clientes, a soma das versões e
+	 * o maior ID.
+	 */
+	@Test
+	void givenDeleteAndInsertWithLowerId_WhenGetListVersionTag_ShouldChange() {
+		final var first = service.insert(new CustomersDTO("John Doe", "address", "district", List.of("11933337777")));
+		final var last = service.insert(new CustomersDTO("Jane Doe", "address", "district", List.of("11933338888")));
+		final var initialTag = service.getListVersionTag();
+
+		service.delete(first.getId());
+		jdbcTemplate.update("insert into customer (id, name, address, district, version) values (?, ?, ?, ?, 0)",
+				first.getId() - 1, "Other Doe", "address", "district");
+
+		assertEquals(2, customerRepository.count());
+		assertEquals(0L, service.getCustomerById(last.getId()).version());
+		assertNotEquals(initialTag, service.getListVersionTag());
+	}
+
+
+	/**
+	 * Teste para verificar que números repetidos na atualização, inclusive em
+	 * formatos diferentes, são rejeitados como na inserção, sem alterar os
+	 * telefones do cliente.
+	 */
+	@Test
+	void givenDuplicatePhones_WhenUpdate_ShouldThrowPhoneAlreadyLinkedException() {
+		final var customer = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("11933339999")));
+
+		assertThrows(PhoneAlreadyLinkedException.class, () -> service.update(customer.getId(),
+				new CustomersDTO("John Doe", "address", "district", List.of("11933339999", "11933339999"))));
+		assertThrows(PhoneAlreadyLinkedException.class, () -> service.update(customer.getId(),
+				new CustomersDTO("John Doe", "address", "district", List.of("11933330000", "(11) 93333-0000"))));
+		assertEquals(List.of("11933339999"),
+				service.getCustomerById(customer.getId()).phones().stream().map(phone -> phone.number()).toList());
+	}
+
+	/**
+	 * Teste para verificar que cada atualização incrementa a versão do cliente
+	 * exatamente uma vez, seja ela apenas dos dados, apenas dos telefones ou de
+	 * ambos, e que uma atualização sem alterações mantém a versão.
+	 */
+	@Test
+	void givenUpdates_WhenUpdate_ShouldBumpVersionExactlyOnce() {
+		final var customer = service
+				.insert(new CustomersDTO("John Doe", "address", "district", List.of("11933337777")));
+		final var id = customer.getId();
+		final long version = service.getCustomerById(id).version();
+
+		service.update(id, new CustomersDTO("Jane Doe", "address", "district", List.of("11933337777")));
+		assertEquals(version + 1, service.getCustomerById(id).version());
+
+		service.update(id, new CustomersDTO("Jane Doe", "address", "district", List.of("11933338888")));
+		assertEquals(version + 2, service.getCustomerById(id).version());
+
+		service.update(id, new CustomersDTO("John Doe", "other address", "district", List.of("11933339999")));
+		assertEquals(version + 3, service.getCustomerById(id).version());
+
+		service.update(id, new CustomersDTO("John Doe", "other address", "district", List.of("11933339999")));
+		assertEquals(version + 3, service.getCustomerById(id).version());
+	}
+
+	/**
+	 * Teste para verificar que a atualização dos telefones mantém os números já
+	 * vinculados ao próprio cliente e executa uma quantidade de instruções que
+	 * não cresce com a quantidade de telefones.
+	 * <p>
+	 * Cenário: um cliente com 4 telefones e outro com 30 têm metade dos
+	 * telefones substituída. A diferença tolerada de uma instrução corresponde
+	 * à eventual busca de um novo bloco de IDs na sequência.
+	 * </p>
+	 */
+	@Test
+	void givenManyPhones_WhenUpdate_ShouldUseConstantStatements() {
+		final var smallCount = countUpdateStatements(4);
+		final var largeCount = countUpdateStatements(30);
+
+		assertTrue(largeCount - smallCount <= 1, smallCount + " x " + largeCount);
+	}
+
+	/**
+	 * Teste para verificar que as chamadas aos repositórios são cronometradas
+	 * e que as estatísticas do Hibernate são publicadas como métricas.
+	 */
+	@Test
+	void givenGetAll_ShouldPublishRepositoryTimerAndHibernateMetrics() {
+		insertCustomers(2, 1);
+		service.getAll();
+
+		final var timer = meterRegistry.find("spring.data.repository.invocations")
+				.tag("repository", "CustomerRepository")
+				.tag("method", "findAllRows")
+				.timer();
+		assertNotNull(timer);
+		assertTrue(timer.count() > 0);
+
+		final var statements = meterRegistry.find("hibernate.statements").tag("status", "prepared").functionCounter();
+		assertNotNull(statements);
+		assertTrue(statements.count() > 0);
+	}
+
+	private long countUpdateStatements(int phonesPerCustomer) {
+		final List<String> phones = new ArrayList<>();
+		for (int i = 0; i < phonesPerCustomer; i++) {
+			phones.add(String.valueOf(phoneSequence++));
+		}
+		final var customer = service.insert(new CustomersDTO("John Doe", "address", "district", phones));
+
+		final List<String> newPhones = new ArrayList<>(phones.subList(0, phonesPerCustomer / 2));
+		for (int i = 0; i < phonesPerCustomer / 2; i++) {
+			newPhones.add(String.valueOf(phoneSequence++));
+		}
+
+		statistics.clear();
+		service.update(customer.getId(), new CustomersDTO("Jane Doe", "address", "district", newPhones));
+		final var count = statistics.getPrepareStatementCount();
+
+		final var updated = service.getCustomerById(customer.getId());
+		assertEquals(newPhones.stream().sorted().toList(),
+				updated.phones().stream().map(phone -> phone.number()).sorted().toList());
+		return count;
+	}
+
+	private void insertCustomers(int customers, int phonesPerCustomer) {
+		for (int i = 0; i < customers; i++) {
+			List<String> phones = new ArrayList<>();
+			for (int j = 0; j < phonesPerCustomer; j++) {
+				phones.add(String.valueOf(phoneSequence++));
+			}
+			service.insert(new CustomersDTO("Customer " + i, "address " + i, "district " + i, phones));
+		}
+	}
+
+	private double indexLookups(String result) {
+		return meterRegistry.get("phones.index.lookups").tag("result", result).counter().count();
+	}
+}